@@ -0,0 +1,47 @@
+package io.github.jengamon.novation.bench;
+
+import com.bitwig.extension.api.Color;
+import io.github.jengamon.novation.Utils;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Palette lookups, both for the few colors a project actually uses (mostly cache hits)
+ * and for arbitrary colors (mostly misses).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ColorBenchmark {
+    private final Color[] mProjectColors = new Color[16];
+    private final Color[] mRandomColors = new Color[4096];
+    private int mNext;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        for(int i = 0; i < mProjectColors.length; i++) {
+            mProjectColors[i] = Color.fromRGB255(random.nextInt(256), random.nextInt(256), random.nextInt(256));
+        }
+        for(int i = 0; i < mRandomColors.length; i++) {
+            mRandomColors[i] = Color.fromRGB255(random.nextInt(256), random.nextInt(256), random.nextInt(256));
+        }
+    }
+
+    @Benchmark
+    public byte projectColors() {
+        mNext = (mNext + 1) & (mProjectColors.length - 1);
+        return Utils.toNovation(mProjectColors[mNext]);
+    }
+
+    @Benchmark
+    public byte randomColors() {
+        mNext = (mNext + 1) & (mRandomColors.length - 1);
+        return Utils.toNovation(mRandomColors[mNext]);
+    }
+}
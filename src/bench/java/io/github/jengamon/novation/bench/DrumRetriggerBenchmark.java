@@ -0,0 +1,81 @@
+package io.github.jengamon.novation.bench;
+
+import com.bitwig.extension.callback.IntegerValueChangedCallback;
+import com.bitwig.extension.callback.ObjectValueChangedCallback;
+import com.bitwig.extension.controller.ControllerExtension;
+import com.bitwig.extension.controller.api.*;
+import io.github.jengamon.novation.FakeHost;
+import io.github.jengamon.novation.LaunchpadXExtensionDefinition;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A closed hi-hat retriggered on one drum pad, as from a 16th-note pattern at 180 BPM (12 hits a second):
+ * Bitwig reports the note playing, then stopped, and each report is followed by a flush.
+ * The whole extension runs on the fake host, in drum mode.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DrumRetriggerBenchmark {
+    private static final int HI_HAT = 42;
+    private static final int SCROLL = 36;
+
+    private ControllerExtension mExtension;
+    private PlayingNote[] mPlaying;
+    private final PlayingNote[] mStopped = new PlayingNote[0];
+    private ObjectValueChangedCallback<PlayingNote[]> mObserver;
+
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        PrintStream out = System.out;
+        PrintStream err = System.err;
+        FakeHost fake = new FakeHost();
+        fake.setRecording(false);
+        mExtension = new LaunchpadXExtensionDefinition().createInstance(fake.host());
+        mExtension.init();
+        System.setOut(out);
+        System.setErr(err);
+
+        ControllerHost host = fake.host();
+        DrumPadBank bank = host.createCursorTrack(8, 0)
+                .createCursorDevice("Primary", "Primary Instrument", 0, CursorDeviceFollowMode.FIRST_INSTRUMENT)
+                .createDrumPadBank(64);
+        for(Object observer : fake.stub(bank.scrollPosition()).observers()) {
+            ((IntegerValueChangedCallback) observer).valueChanged(SCROLL);
+        }
+        DrumPad pad = bank.getItemAt(HI_HAT - SCROLL);
+        fake.stub(pad.exists()).answer("get", true);
+        fake.stub(pad.isActivated()).answer("get", true);
+        PlayingNote note = fake.create(PlayingNote.class);
+        fake.stub(note).answer("pitch", HI_HAT);
+        mPlaying = new PlayingNote[] {note};
+        mObserver = (ObjectValueChangedCallback<PlayingNote[]>) fake.stub(pad.playingNotes()).observers().get(0);
+        mExtension.flush();
+    }
+
+    @Benchmark
+    public void retrigger() {
+        mObserver.valueChanged(mPlaying);
+        mExtension.flush();
+        mObserver.valueChanged(mStopped);
+        mExtension.flush();
+    }
+
+    @Benchmark
+    public void retriggerObserverOnly() {
+        mObserver.valueChanged(mPlaying);
+        mObserver.valueChanged(mStopped);
+    }
+
+    @Benchmark
+    public void idleFlush() {
+        mExtension.flush();
+    }
+}
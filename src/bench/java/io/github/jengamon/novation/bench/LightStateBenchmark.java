@@ -0,0 +1,61 @@
+package io.github.jengamon.novation.bench;
+
+import io.github.jengamon.novation.FakeHost;
+import io.github.jengamon.novation.internal.LedBatch;
+import io.github.jengamon.novation.internal.Session;
+import io.github.jengamon.novation.surface.state.PadLightState;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Interning pad light states, and draining a full grid of changed LEDs as SysEx frames.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LightStateBenchmark {
+    private final LedBatch mBatch = new LedBatch();
+    private Session mSession;
+    private int mNext;
+
+    @Setup
+    public void setUp() {
+        FakeHost fake = new FakeHost();
+        fake.setRecording(false);
+        mSession = new Session(fake.host());
+    }
+
+    @Benchmark
+    public PadLightState solid() {
+        mNext = (mNext + 1) & 0x7F;
+        return PadLightState.solidLight(mNext);
+    }
+
+    @Benchmark
+    public PadLightState pulse() {
+        mNext = (mNext + 1) & 0x7F;
+        return PadLightState.pulseLight(120.0, mNext);
+    }
+
+    @Benchmark
+    public PadLightState blinkAtChangingTempo() {
+        mNext = (mNext + 1) & 0xFFFF;
+        return PadLightState.of(60.0 + mNext / 100.0, (byte)5, (byte)(mNext & 0x7F), (byte)0);
+    }
+
+    @Benchmark
+    public boolean drainGrid() {
+        mNext++;
+        for(int row = 1; row <= 8; row++) {
+            for(int col = 1; col <= 8; col++) {
+                // Alternate colors, so every LED has changed since the last drain
+                mBatch.set(row * 10 + col, (byte)((row + col + mNext) & 0x7F), (byte)0, (byte)(col == 1 ? 21 : 0));
+            }
+        }
+        return mBatch.drain(mSession, Integer.MAX_VALUE);
+    }
+}
@@ -0,0 +1,107 @@
+package io.github.jengamon.novation.bench;
+
+import com.bitwig.extension.callback.BooleanValueChangedCallback;
+import com.bitwig.extension.controller.api.*;
+import io.github.jengamon.novation.FakeHost;
+import io.github.jengamon.novation.ModeMachine;
+import io.github.jengamon.novation.internal.HostLog;
+import io.github.jengamon.novation.internal.Session;
+import io.github.jengamon.novation.modes.DrumPadMode;
+import io.github.jengamon.novation.modes.SessionMode;
+import io.github.jengamon.novation.modes.session.SessionGridModel;
+import io.github.jengamon.novation.surface.LaunchpadXSurface;
+import io.github.jengamon.novation.surface.LedAnimator;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Full redraws of the session and drum modes, switches between them, and fader setup,
+ * on the fake host with a session grid where every slot holds a clip.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ModeBenchmark {
+    // Spelled out, JMH has a Mode of its own
+    private static final io.github.jengamon.novation.Mode SESSION = io.github.jengamon.novation.Mode.SESSION;
+    private static final io.github.jengamon.novation.Mode DRUM = io.github.jengamon.novation.Mode.DRUM;
+
+    private LaunchpadXSurface mSurface;
+    private ModeMachine mMachine;
+    private SessionMode mSessionMode;
+    private DrumPadMode mDrumPadMode;
+    private boolean mVertical;
+    private boolean mInDrum;
+
+    @Setup
+    public void setUp() {
+        FakeHost fake = new FakeHost();
+        fake.setRecording(false);
+        ControllerHost host = fake.host();
+        Session session = new Session(host);
+        mSurface = new LaunchpadXSurface(host, session, host.createHardwareSurface());
+        mMachine = new ModeMachine(host, session, mSurface);
+        LedAnimator animator = new LedAnimator(host, cell -> mMachine.redraw(mSurface, cell));
+
+        Transport transport = host.createTransport();
+        TrackBank bank = host.createTrackBank(8, 0, 8, true);
+        AtomicBoolean launchAlt = new AtomicBoolean(false);
+        SessionGridModel grid = new SessionGridModel(host, bank, 8, transport.tempo().modulatedValue(), launchAlt);
+        for(int track = 0; track < 8; track++) {
+            ClipLauncherSlotBank slots = bank.getItemAt(track).clipLauncherSlotBank();
+            for(int slot = 0; slot < 8; slot++) {
+                ClipLauncherSlot clip = slots.getItemAt(slot);
+                fire(fake, clip.exists());
+                fire(fake, clip.hasContent());
+            }
+        }
+        mSessionMode = new SessionMode(bank, grid, transport, mSurface, host, new HostLog(host), animator,
+                host.getPreferences().getBooleanSetting("Pulse Session Scene Pads?", "Behavior", false), launchAlt);
+        mMachine.register(SESSION, mSessionMode);
+
+        CursorDevice device = host.createCursorTrack(8, 0)
+                .createCursorDevice("Primary", "Primary Instrument", 0, CursorDeviceFollowMode.FIRST_INSTRUMENT);
+        mDrumPadMode = new DrumPadMode(host, session, mSurface, device);
+        mMachine.register(DRUM, mDrumPadMode);
+        mMachine.setMode(mSurface, SESSION);
+    }
+
+    private static void fire(FakeHost fake, BooleanValue value) {
+        for(Object observer : fake.stub(value).observers()) {
+            ((BooleanValueChangedCallback) observer).valueChanged(true);
+        }
+    }
+
+    @Benchmark
+    public void sessionDraw() {
+        mSessionMode.onDraw(mSurface);
+    }
+
+    @Benchmark
+    public void drumDraw() {
+        mDrumPadMode.onDraw(mSurface);
+    }
+
+    @Benchmark
+    public void switchMode() {
+        mInDrum = !mInDrum;
+        mMachine.setMode(mSurface, mInDrum ? DRUM : SESSION);
+    }
+
+    @Benchmark
+    public void setupFaders() {
+        // Alternating, so every call is a real change the device has to be told about
+        mVertical = !mVertical;
+        mSurface.setupFaders(mVertical, false, 21);
+    }
+
+    @Benchmark
+    public void setupFadersUnchanged() {
+        mSurface.setupFaders(true, false, 21);
+    }
+}
@@ -0,0 +1,42 @@
+package io.github.jengamon.novation.bench;
+
+import io.github.jengamon.novation.internal.SysexParser;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decoding incoming SysEx, for the short replies the device sends and a full LED frame.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SysexBenchmark {
+    private static final String LAYOUT_REPLY = "f0 00 20 29 02 0c 00 01 f7";
+
+    private final SysexParser mParser = new SysexParser(256);
+    private String mFrame;
+
+    @Setup
+    public void setUp() {
+        StringBuilder frame = new StringBuilder("f0 00 20 29 02 0c 03");
+        for(int i = 0; i < 81; i++) {
+            frame.append(String.format(" 00 %02x %02x", 11 + i % 89, i));
+        }
+        mFrame = frame.append(" f7").toString();
+    }
+
+    @Benchmark
+    public ByteBuffer layoutReply() {
+        return mParser.parse(LAYOUT_REPLY);
+    }
+
+    @Benchmark
+    public ByteBuffer ledFrame() {
+        return mParser.parse(mFrame);
+    }
+}
@@ -0,0 +1,59 @@
+package io.github.jengamon.novation.bench;
+
+import com.bitwig.extension.controller.api.MidiOut;
+import io.github.jengamon.novation.FakeHost;
+import io.github.jengamon.novation.Utils;
+import io.github.jengamon.novation.internal.ChannelType;
+import io.github.jengamon.novation.internal.Session;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sending the same LED frame as a hex string and as bytes.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SysexOutBenchmark {
+    @Param({"1", "81"})
+    public int mSpecs;
+
+    private Session mSession;
+    private MidiOut mOut;
+    private byte[] mBody;
+
+    @Setup
+    public void setUp() {
+        FakeHost fake = new FakeHost();
+        fake.setRecording(false);
+        mSession = new Session(fake.host());
+        mOut = mSession.midiOut(ChannelType.DAW);
+        mBody = new byte[1 + mSpecs * 3];
+        mBody[0] = 0x03;
+        for(int i = 0; i < mSpecs; i++) {
+            mBody[1 + i * 3] = 0x00;
+            mBody[2 + i * 3] = (byte)(11 + i);
+            mBody[3 + i * 3] = (byte)i;
+        }
+    }
+
+    @Benchmark
+    public void string() {
+        // How the frame was built before byte messages existed
+        StringBuilder hex = new StringBuilder("f0 00 20 29 02 0c");
+        for(int i = 0; i < mBody.length; i++) {
+            hex.append(' ').append(Utils.toHexString(mBody[i]));
+        }
+        hex.append(" f7");
+        mOut.sendSysex(hex.toString());
+    }
+
+    @Benchmark
+    public void bytes() {
+        mSession.sendSysex(mBody);
+    }
+}
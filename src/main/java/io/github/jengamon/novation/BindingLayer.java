@@ -0,0 +1,42 @@
+package io.github.jengamon.novation;
+
+import com.bitwig.extension.controller.api.HardwareActionBindable;
+import io.github.jengamon.novation.surface.LaunchpadXSurface;
+
+import java.util.function.DoubleConsumer;
+
+/**
+ * The button actions of a single mode, built once and swapped in whole by the {@link ModeMachine}.
+ * Buttons are addressed by surface cell, and only the grid, scene and arrow cells have buttons.
+ */
+public class BindingLayer {
+    public static final int BUTTON_CELLS = LaunchpadXSurface.FADER_CELLS;
+
+    private final DoubleConsumer[] mPressed = new DoubleConsumer[BUTTON_CELLS];
+    private final HardwareActionBindable[] mReleased = new HardwareActionBindable[BUTTON_CELLS];
+
+    public void bindPressed(int cell, HardwareActionBindable action) {
+        mPressed[cell] = pressure -> action.invoke();
+    }
+
+    /**
+     * Binds a press that wants the pad velocity (0..1).
+     */
+    public void bindPressed(int cell, DoubleConsumer action) {
+        mPressed[cell] = action;
+    }
+
+    public void bindReleased(int cell, HardwareActionBindable action) {
+        mReleased[cell] = action;
+    }
+
+    void press(int cell, double pressure) {
+        DoubleConsumer action = mPressed[cell];
+        if(action != null) action.accept(pressure);
+    }
+
+    void release(int cell) {
+        HardwareActionBindable action = mReleased[cell];
+        if(action != null) action.invoke();
+    }
+}
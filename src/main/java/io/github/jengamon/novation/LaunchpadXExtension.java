@@ -3,18 +3,23 @@
 package io.github.jengamon.novation;
 
 import com.bitwig.extension.api.util.midi.ShortMidiMessage;
-import com.bitwig.extension.callback.ObjectValueChangedCallback;
 import com.bitwig.extension.controller.ControllerExtension;
 import com.bitwig.extension.controller.api.*;
 import io.github.jengamon.novation.internal.ChannelType;
 import io.github.jengamon.novation.internal.HostErrorOutputStream;
+import io.github.jengamon.novation.internal.HostLog;
 import io.github.jengamon.novation.internal.HostOutputStream;
+import io.github.jengamon.novation.internal.NoteHighlights;
 import io.github.jengamon.novation.internal.Session;
+import io.github.jengamon.novation.internal.SysexParser;
 import io.github.jengamon.novation.modes.AbstractMode;
 import io.github.jengamon.novation.modes.DrumPadMode;
 import io.github.jengamon.novation.modes.SessionMode;
 import io.github.jengamon.novation.modes.mixer.*;
+import io.github.jengamon.novation.modes.session.ScrollSettleTracker;
+import io.github.jengamon.novation.modes.session.SessionGridModel;
 import io.github.jengamon.novation.surface.LaunchpadXSurface;
+import io.github.jengamon.novation.surface.LedAnimator;
 import io.github.jengamon.novation.surface.state.PadLightState;
 import com.bitwig.extension.api.opensoundcontrol.OscModule;
 import com.bitwig.extension.api.opensoundcontrol.OscAddressSpace;
@@ -22,20 +27,27 @@ import com.bitwig.extension.api.opensoundcontrol.OscConnection;
 import com.bitwig.extension.api.opensoundcontrol.OscMessage;
 import com.bitwig.extension.api.opensoundcontrol.OscMethodCallback;
 
-import java.io.PrintStream;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 
 public class LaunchpadXExtension extends ControllerExtension {
+    private HostLog mLog;
     private Session mSession;
     private HardwareSurface mSurface;
     private LaunchpadXSurface mLSurface;
     private ModeMachine mMachine;
+    private LedAnimator mAnimator;
+    private final SysexParser mSysexParser = new SysexParser(256);
 
     // We keep a reference so OSC handler can ask it to flash a scene row
     private SessionMode mSessionMode;
+    private DrumPadMode mDrumPadMode;
+    private SessionGridModel mSessionGrid;
+    private final NoteHighlights mNoteHighlights = new NoteHighlights();
 
     private final static String CLIP_LAUNCHER = "Clip Launcher";
     private final static String GLOBAL = "Global";
@@ -44,8 +56,25 @@ public class LaunchpadXExtension extends ControllerExtension {
     private final static String LAUNCH_ALT = "Launch Alt";
 
     private SettableStringValue oscReceiveIpSetting;
+    // Latest /bitx/jumpScene target as (track << 32 | scene), or NO_JUMP
+    private final static long NO_JUMP = -1L;
+    private final AtomicLong mPendingJump = new AtomicLong(NO_JUMP);
+    private final AtomicLong mJumpsReceived = new AtomicLong();
+    private long mJumpsApplied;
+    private TrackBank mFollowTrackBank;
+    // Positions set on the follow banks that Bitwig hasn't reported back yet, or NOT_REQUESTED
+    private final static int NOT_REQUESTED = -1;
+    private int mRequestedTrackPosition = NOT_REQUESTED;
+    private int mRequestedScenePosition = NOT_REQUESTED;
+    private ScrollSettleTracker mScrollSettle;
+    private final static long SCROLL_SETTLE_TIMEOUT = 500L;
     private SettableRangedValue oscReceivePortSetting;
 
+    // SysEx commands whose replies need every light resent
+    private final static byte LAYOUT_REPLY = 0x00;
+    private final static byte LIVE_MODE_REPLY = 0x0E;
+    private final static byte DAW_MODE_REPLY = 0x10;
+
     protected LaunchpadXExtension(final LaunchpadXExtensionDefinition definition, final ControllerHost host) {
         super(definition, host);
     }
@@ -59,6 +88,13 @@ public class LaunchpadXExtension extends ControllerExtension {
         BooleanValue mSwapOnBoot = prefs.getBooleanSetting("Swap to Session on Boot?", "Behavior", true);
         BooleanValue mPulseSessionPads = prefs.getBooleanSetting("Pulse Session Scene Pads?", "Behavior", false);
         BooleanValue mViewableBanks = prefs.getBooleanSetting("Viewable Bank?", "Behavior", true);
+        BooleanValue mBatchLeds = prefs.getBooleanSetting("Batch LED Updates (SysEx)?", "Behavior", false);
+        BooleanValue mLimitOutput = prefs.getBooleanSetting("Limit LED Output to MIDI Bandwidth?", "Behavior", false);
+        Signal mShowTraffic = prefs.getSignalSetting("MIDI Traffic", "Diagnostics", "Show");
+        Signal mShowLatency = prefs.getSignalSetting("Press Latency", "Diagnostics", "Show");
+        Signal mResetLatency = prefs.getSignalSetting("Reset Press Latency", "Diagnostics", "Reset");
+        EnumValue mLogLevel = prefs.getEnumSetting("Log Level", "Diagnostics", HostLog.Level.displayNames(), HostLog.Level.INFO.displayName());
+        SettableRangedValue mFaderFeedbackInterval = prefs.getNumberSetting("Fader Feedback Interval", "Behavior", 0, 200, 1, "ms", 0);
         BooleanValue mStopClipsBeforeToggle = prefs.getBooleanSetting("Stop Recording Clips before Toggle Record?", "Record Button", false);
 
         EnumValue mRecordLevel = documentPrefs.getEnumSetting("Rec. Target", "Record Button", new String[]{GLOBAL, CLIP_LAUNCHER}, CLIP_LAUNCHER);
@@ -68,8 +104,10 @@ public class LaunchpadXExtension extends ControllerExtension {
         oscReceivePortSetting = prefs.getNumberSetting("Osc Receive Port", "OSC", 1024, 65535, 1, "", 8000);
 
         // Replace System.out and System.err with ones that actually log in Bitwig
-        System.setOut(new PrintStream(new HostOutputStream(host)));
-        System.setErr(new PrintStream(new HostErrorOutputStream(host)));
+        mLog = new HostLog(host);
+        mLogLevel.addValueObserver(level -> mLog.setLevel(HostLog.Level.fromDisplayName(level)));
+        System.setOut(new HostOutputStream(mLog).printStream());
+        System.setErr(new HostErrorOutputStream(mLog).printStream());
 
         // Create state objects
         mSession = new Session(host);
@@ -88,35 +126,51 @@ public class LaunchpadXExtension extends ControllerExtension {
         // --- OSC FOLLOW SETUP ---
         setupBitxOscFollow(host, mSessionTrackBank);
 
-        mCursorTrack.playingNotes().addValueObserver(new ObjectValueChangedCallback<PlayingNote[]>() {
-            @Override
-            public void valueChanged(PlayingNote[] playingNotes) {
-                for (int pitch : mPrevPitches) {
-                    mSession.midiOut(ChannelType.DAW).sendMidi(0x8f, pitch, 0);
-                }
-                mPrevPitches.clear();
-                for (PlayingNote playingNote : playingNotes) {
-                    mSession.midiOut(ChannelType.DAW).sendMidi(0x9f, playingNote.pitch(), 21);
-                    mPrevPitches.add(playingNote.pitch());
-                }
-            }
-            final ArrayList<Integer> mPrevPitches = new ArrayList<>();
+        // Only the notes that changed are sent, once per flush
+        mCursorTrack.playingNotes().addValueObserver(playingNotes -> {
+            mNoteHighlights.set(playingNotes);
+            host.requestFlush();
         });
 
         // Create surface & mode machine
         mSurface.setPhysicalSize(241, 241);
         mLSurface = new LaunchpadXSurface(host, mSession, mSurface);
-        mMachine = new ModeMachine(mSession);
+        mFaderFeedbackInterval.addRawValueObserver(ms -> mLSurface.setFaderFeedbackInterval(Math.round(ms)));
+        mLimitOutput.addValueObserver(limit -> {
+            mSession.setLimitOutput(limit);
+            mSurface.invalidateHardwareOutputState();
+        });
+        mShowTraffic.addSignalObserver(() -> {
+            mLog.info(mSession.trafficSummary());
+            host.showPopupNotification(mSession.trafficSummary());
+        });
+        mShowLatency.addSignalObserver(() -> {
+            String summary = mSession.latency().summary();
+            mLog.info(summary);
+            host.showPopupNotification(summary);
+        });
+        mResetLatency.addSignalObserver(() -> mSession.latency().reset());
+        mBatchLeds.addValueObserver(batch -> {
+            mSession.setBatchLeds(batch);
+            mSurface.invalidateHardwareOutputState();
+        });
+        mMachine = new ModeMachine(host, mSession, mLSurface);
+        // Animations are drawn by the active mode, over its own lights
+        mAnimator = new LedAnimator(host, cell -> mMachine.redraw(mLSurface, cell));
 
         AtomicBoolean launchAlt = new AtomicBoolean(false);
         AtomicBoolean launchAltConfig = new AtomicBoolean(false);
 
+        // One set of clip observers and launch actions, shared by the session and session mixer modes
+        mSessionGrid = new SessionGridModel(host, mSessionTrackBank, 8, mTransport.tempo().modulatedValue(), launchAlt);
+
         // --- SESSION MODE (keep reference in mSessionMode) ---
-        mSessionMode = new SessionMode(mSessionTrackBank, mTransport, mLSurface, host, mPulseSessionPads, launchAlt);
+        mSessionMode = new SessionMode(mSessionTrackBank, mSessionGrid, mTransport, mLSurface, host, mLog, mAnimator, mPulseSessionPads, launchAlt);
         mMachine.register(Mode.SESSION, mSessionMode);
 
         // Drum & mixer modes unchanged...
-        mMachine.register(Mode.DRUM, new DrumPadMode(host, mSession, mLSurface, mCursorDevice));
+        mDrumPadMode = new DrumPadMode(host, mSession, mLSurface, mCursorDevice);
+        mMachine.register(Mode.DRUM, mDrumPadMode);
         mMachine.register(Mode.UNKNOWN, new AbstractMode() {
             @Override
             public List<HardwareBinding> onBind(LaunchpadXSurface surface) {
@@ -129,10 +183,10 @@ public class LaunchpadXExtension extends ControllerExtension {
         mMachine.register(Mode.MIXER_PAN, new PanMixer(mixerMode, host, mTransport, mLSurface, mSessionTrackBank));
         mMachine.register(Mode.MIXER_SEND, new SendMixer(mixerMode, host, mTransport, mLSurface, mCursorTrack));
         mMachine.register(Mode.MIXER_CONTROLS, new ControlsMixer(mixerMode, host, mTransport, mLSurface, mControlsCursorDevice));
-        mMachine.register(Mode.MIXER_STOP, new StopClipMixer(mixerMode, host, mTransport, mLSurface, mSessionTrackBank, launchAlt));
-        mMachine.register(Mode.MIXER_MUTE, new MuteMixer(mixerMode, host, mTransport, mLSurface, mSessionTrackBank, launchAlt));
-        mMachine.register(Mode.MIXER_SOLO, new SoloMixer(mixerMode, host, mTransport, mLSurface, mSessionTrackBank, launchAlt));
-        mMachine.register(Mode.MIXER_ARM, new RecordArmMixer(mixerMode, host, mTransport, mLSurface, mSessionTrackBank, launchAlt));
+        mMachine.register(Mode.MIXER_STOP, new StopClipMixer(mixerMode, host, mTransport, mLSurface, mSessionTrackBank, mSessionGrid, mAnimator));
+        mMachine.register(Mode.MIXER_MUTE, new MuteMixer(mixerMode, host, mTransport, mLSurface, mSessionTrackBank, mSessionGrid, mAnimator));
+        mMachine.register(Mode.MIXER_SOLO, new SoloMixer(mixerMode, host, mTransport, mLSurface, mSessionTrackBank, mSessionGrid, mAnimator));
+        mMachine.register(Mode.MIXER_ARM, new RecordArmMixer(mixerMode, host, mTransport, mLSurface, mSessionTrackBank, mSessionGrid, mAnimator));
 
         // Record button behaviour (unchanged – your existing code)
         mCursorTrack.hasNext().markInterested();
@@ -286,7 +340,6 @@ public class LaunchpadXExtension extends ControllerExtension {
             if (om != Mode.DRUM && om != Mode.UNKNOWN) {
                 lastSessionMode.set(om);
             }
-            mSession.sendSysex("00 01");
             mMachine.setMode(mLSurface, Mode.DRUM);
         }, () -> "Press Note View");
 
@@ -318,13 +371,40 @@ public class LaunchpadXExtension extends ControllerExtension {
 
     @Override
     public void exit() {
+        mLog.beginFlush();
         mSession.shutdown();
+        System.out.println("Launchpad X redraws: " + mMachine.requestedRedraws() + " requested, "
+                + mMachine.executedRedraws() + " rendered");
+        System.out.println("Launchpad X channel queries: " + mDrumPadMode.channelQueriesSent() + " sent, "
+                + mDrumPadMode.channelChanges() + " changed the channel");
+        System.out.println("Launchpad X mode switches: " + mMachine.modeSwitches() + ", average "
+                + mMachine.modeSwitchAverageMicros() + " us, max " + mMachine.modeSwitchMaxMicros() + " us, "
+                + mMachine.transitionCells() + " cells changed");
+        System.out.println("Launchpad X fader feedback: " + mLSurface.faderValuesSent() + " sent, "
+                + mLSurface.faderValuesDropped() + " dropped");
+        System.out.println("Launchpad X session grid observers: " + mSessionGrid.observerCount());
+        System.out.println("Launchpad X " + mSession.trafficSummary());
+        System.out.println("Launchpad X LED animations: " + mAnimator.summary());
+        System.out.println("Launchpad X OSC jumps: " + mJumpsReceived.get() + " received, "
+                + mJumpsApplied + " applied, feedback " + mScrollSettle.summary());
+        System.out.println(mSession.latency().summary());
         System.out.println("Launchpad X Exited");
+        mLog.drain();
     }
 
     @Override
     public void flush() {
+        mLog.beginFlush();
+        mSession.beginFlush();
+        applyPendingJump();
+        mMachine.flush(mLSurface);
         mSurface.updateHardware();
+        mLSurface.flushFaderLights();
+        mLSurface.flushFaderValues();
+        mNoteHighlights.flush(mSession);
+        mSession.flushLeds();
+        mSession.endFlush();
+        mLog.drain();
     }
 
     private void onMidi0(ShortMidiMessage msg) {
@@ -332,9 +412,14 @@ public class LaunchpadXExtension extends ControllerExtension {
     }
 
     private void onSysex0(final String data) {
-        byte[] sysex = Utils.parseSysex(data);
+        ByteBuffer sysex = mSysexParser.parse(data);
+        if (sysex == null) return;
+        byte command = sysex.hasRemaining() ? sysex.get(sysex.position()) : -1;
         mMachine.sendSysex(sysex);
-        mSurface.invalidateHardwareOutputState();
+        // Only layout and mode replies can mean the device lost its lights; channel query replies don't
+        if (command == LAYOUT_REPLY || command == LIVE_MODE_REPLY || command == DAW_MODE_REPLY) {
+            mLSurface.resync();
+        }
     }
 
     private void onMidi1(ShortMidiMessage msg) {
@@ -344,6 +429,14 @@ public class LaunchpadXExtension extends ControllerExtension {
     /** OSC server so Launchpad session view can follow BitX JUMPTO. */
 
     private void setupBitxOscFollow(ControllerHost host, TrackBank sessionTrackBank) {
+        mFollowTrackBank = sessionTrackBank;
+        sessionTrackBank.scrollPosition().addValueObserver(position -> {
+            if (position == mRequestedTrackPosition) mRequestedTrackPosition = NOT_REQUESTED;
+        });
+        sessionTrackBank.sceneBank().scrollPosition().addValueObserver(position -> {
+            if (position == mRequestedScenePosition) mRequestedScenePosition = NOT_REQUESTED;
+        });
+        mScrollSettle = new ScrollSettleTracker(host, mLog, sessionTrackBank, SCROLL_SETTLE_TIMEOUT);
         try {
             OscModule oscModule = host.getOscModule();
 
@@ -369,41 +462,15 @@ public class LaunchpadXExtension extends ControllerExtension {
                             sceneIndex = args[0];
                         }
 
-                        SceneBank sceneBank = sessionTrackBank.sceneBank();
-
-                        // --- ensure track visible in TrackBank (8-wide) ---
-                        int trackWindowSize = sessionTrackBank.getSizeOfBank(); // usually 8
-                        if (trackWindowSize <= 0) trackWindowSize = 8;
-
-                        host.println("Launchpad OSC: ensuring track " + trackIndex +
-                                " visible (TrackBank size=" + trackWindowSize + ")");
-                        sessionTrackBank.scrollIntoView(trackIndex);
-
-                        // --- ensure scene visible in SceneBank (8-high) ---
-                        int sceneWindowSize = sceneBank.getSizeOfBank(); // usually 8
-                        if (sceneWindowSize <= 0) sceneWindowSize = 8;
-
-                        int page      = sceneIndex / sceneWindowSize;
-                        int slotInWin = sceneIndex % sceneWindowSize;
-
-                        sceneBank.scrollByPages(page);
-                        sceneBank.scrollBy(slotInWin);
-                        sceneBank.scrollIntoView(sceneIndex);
-
-                        host.println("Launchpad OSC: JUMPTO -> track " + trackIndex +
-                                " scene " + sceneIndex);
-
-                        // Flash pad after short delay so scrolling has settled
-                        if (mSessionMode != null) {
-                            int finalTrackIndex = trackIndex;
-                            int finalSceneIndex = sceneIndex;
-                            host.println("   ⏳ Scheduling pad visual flash in 300ms...");
-                            host.scheduleTask(() -> {
-                                host.println("   ⚡ Executing pad visual flash for track " +
-                                        finalTrackIndex + " scene " + finalSceneIndex);
-                                mSessionMode.flashPadFromGlobalVisual(finalTrackIndex, finalSceneIndex);
-                            }, 300);
+                        if (trackIndex < 0 || sceneIndex < 0) {
+                            mLog.warn("Launchpad OSC: /bitx/jumpScene target out of range → ignored.");
+                            return;
                         }
+
+                        // Only the latest target of a burst is applied, on the next flush
+                        mJumpsReceived.incrementAndGet();
+                        mPendingJump.set(((long) trackIndex << 32) | sceneIndex);
+                        host.requestFlush();
                     }
             );
 
@@ -413,14 +480,65 @@ public class LaunchpadXExtension extends ControllerExtension {
             }
 
             oscModule.createUdpServer(port, addrSpace);
-            host.println("Launchpad OSC: listening for BitX on UDP port " +
+            mLog.info("Launchpad OSC: listening for BitX on UDP port " +
                     port + " (expecting from " + oscReceiveIpSetting.get() + ")");
 
         } catch (Exception ex) {
-            host.println("Launchpad OSC: failed to set up: " + ex.getMessage());
+            mLog.error("Launchpad OSC: failed to set up: " + ex.getMessage());
+        }
+    }
+
+
+    /**
+     * Moves the session window to the latest /bitx/jumpScene target, if one came in since the last flush.
+     */
+    private void applyPendingJump() {
+        long jump = mPendingJump.getAndSet(NO_JUMP);
+        if (jump == NO_JUMP) return;
+        int trackIndex = (int) (jump >>> 32);
+        int sceneIndex = (int) jump;
+        mJumpsApplied++;
+
+        // Bitwig reports a new position a while after it was set, so one requested earlier wins over the bank's own
+        int trackFrom = mRequestedTrackPosition != NOT_REQUESTED
+                ? mRequestedTrackPosition : mFollowTrackBank.scrollPosition().get();
+        int trackPosition = showInWindow(mFollowTrackBank, trackFrom, trackIndex);
+        if (trackPosition != trackFrom) mRequestedTrackPosition = trackPosition;
+        int sceneFrom = mRequestedScenePosition != NOT_REQUESTED
+                ? mRequestedScenePosition : mFollowTrackBank.sceneBank().scrollPosition().get();
+        int scenePosition = showInWindow(mFollowTrackBank.sceneBank(), sceneFrom, sceneIndex);
+        if (scenePosition != sceneFrom) mRequestedScenePosition = scenePosition;
+
+        if (mLog.isEnabled(HostLog.Level.DEBUG)) {
+            mLog.debug("Launchpad OSC: JUMPTO -> track " + trackIndex +
+                    " scene " + sceneIndex);
+        }
+
+        // Flash pad once both banks report the new window; a newer jump replaces it
+        if (mSessionMode != null) {
+            mLog.debug("   ⏳ Waiting for scroll to settle...");
+            mScrollSettle.expect(trackPosition, scenePosition, () -> {
+                if (mLog.isEnabled(HostLog.Level.DEBUG)) {
+                    mLog.debug("   ⚡ Executing pad visual flash for track " +
+                            trackIndex + " scene " + sceneIndex);
+                }
+                mSessionMode.flashPadFromGlobalVisual(trackIndex, sceneIndex);
+            });
         }
     }
 
+    /**
+     * Sets a bank's position once, to the page holding index, unless index is already visible from position.
+     * Returns the position the bank will end up at.
+     */
+    private static int showInWindow(Bank<?> bank, int position, int index) {
+        int windowSize = bank.getSizeOfBank(); // usually 8
+        if (windowSize <= 0) windowSize = 8;
+        if (index >= position && index < position + windowSize) return position;
+        position = index - index % windowSize;
+        bank.scrollPosition().set(position);
+        return position;
+    }
 
     @FunctionalInterface
     private interface OscIntHandler {
@@ -439,11 +557,13 @@ public class LaunchpadXExtension extends ControllerExtension {
                 "*",              // accept any types, we'll coerce to int
                 description,
                 (connection, msg) -> {
-                    host.println("Launchpad OSC: received " +
-                            msg.getAddressPattern() + " args=" + msg.getArguments());
+                    if (mLog.isEnabled(HostLog.Level.DEBUG)) {
+                        mLog.debug("Launchpad OSC: received " +
+                                msg.getAddressPattern() + " args=" + msg.getArguments());
+                    }
 
                     if (msg.getArguments().isEmpty()) {
-                        host.println("Launchpad OSC: " + address + " missing arguments.");
+                        mLog.warn("Launchpad OSC: " + address + " missing arguments.");
                         return;
                     }
 
@@ -462,7 +582,7 @@ public class LaunchpadXExtension extends ControllerExtension {
                         }
 
                         if (v == null) {
-                            host.println("Launchpad OSC: " + address +
+                            mLog.warn("Launchpad OSC: " + address +
                                     " arg[" + i + "] is not numeric → aborting.");
                             return;
                         }
@@ -1,56 +1,170 @@
 package io.github.jengamon.novation;
 
+import com.bitwig.extension.controller.api.ControllerHost;
 import com.bitwig.extension.controller.api.HardwareBinding;
+import com.bitwig.extension.controller.api.HardwareButton;
+import io.github.jengamon.novation.internal.DeviceLayout;
+import io.github.jengamon.novation.internal.LatencyMonitor;
 import io.github.jengamon.novation.internal.Session;
 import io.github.jengamon.novation.modes.AbstractMode;
 import io.github.jengamon.novation.surface.LaunchpadXSurface;
 
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
 public class ModeMachine {
     private final Map<Mode, AbstractMode> mModes;
+    private final Map<Mode, BindingLayer> mLayers;
     private Mode mMode;
     private AbstractMode mModus;
+    private BindingLayer mLayer;
     private List<HardwareBinding> mBindings;
+    private final LaunchpadXSurface mSurface;
     private final Session mSession;
+    private final ControllerHost mHost;
+    private final BitSet mDirtyCells = new BitSet(LaunchpadXSurface.CELL_COUNT);
+    private boolean mFullRedraw;
+    private boolean mFramePending;
 
-    public ModeMachine(Session session) {
+    // How many redraws were asked for, against how many render passes actually ran
+    private long mRequestedRedraws;
+    private long mExecutedRedraws;
+
+    // Mode switch timing, in nanoseconds
+    private long mModeSwitches;
+    private long mModeSwitchTotal;
+    private long mModeSwitchMax;
+    private long mTransitionCells;
+
+    public ModeMachine(ControllerHost host, Session session, LaunchpadXSurface surface) {
         mModes = new HashMap<>();
+        mLayers = new HashMap<>();
         mBindings = new ArrayList<>();
         mMode = Mode.UNKNOWN;
+        mLayer = new BindingLayer();
         mSession = session;
+        mHost = host;
+        mSurface = surface;
+
+        // Every button is bound once, and presses go to whichever layer is active
+        LatencyMonitor latency = session.latency();
+        for(int cell = 0; cell < BindingLayer.BUTTON_CELLS; cell++) {
+            final int finalCell = cell;
+            HardwareButton button = surface.pad(cell).button();
+            final int led = surface.pad(cell).id();
+            if(LaunchpadXSurface.isGridCell(cell)) {
+                button.pressedAction().addBinding(host.createAction(pressure -> {
+                    latency.input(LatencyMonitor.Input.PAD, led);
+                    mLayer.press(finalCell, pressure);
+                }, () -> "Press Pad " + finalCell));
+            } else if(LaunchpadXSurface.isSceneCell(cell)) {
+                button.pressedAction().addBinding(host.createAction(() -> {
+                    latency.input(LatencyMonitor.Input.SCENE, led);
+                    mLayer.press(finalCell, 1.0);
+                }, () -> "Press Button " + finalCell));
+            } else {
+                button.pressedAction().addBinding(host.createAction(() -> mLayer.press(finalCell, 1.0), () -> "Press Button " + finalCell));
+            }
+            button.releasedAction().addBinding(host.createAction(() -> mLayer.release(finalCell), () -> "Release " + finalCell));
+        }
     }
 
     public Mode mode() { return mMode; }
 
     public void register(Mode mode, AbstractMode am) {
         am.onInit(this, mode);
+        BindingLayer layer = new BindingLayer();
+        am.onBuildLayer(mSurface, layer);
         mModes.put(mode, am);
+        mLayers.put(mode, layer);
     }
 
     public void setMode(LaunchpadXSurface surface, Mode mode) {
+        long start = System.nanoTime();
         for(HardwareBinding binding : mBindings) {
             binding.removeBinding();
         }
         mMode = mode;
         if(!mModes.containsKey(mode)) throw new RuntimeException("Invalid mode state: " + mode);
-        surface.clear();
+        // Draw the new mode over the old frame; only pads that end up different get sent
+        surface.beginTransition();
         mModus = mModes.get(mode);
+        mLayer = mLayers.get(mode);
         mBindings = mModus.onBind(surface);
+        DeviceLayout layout = mSession.layout();
         mModus.finishedBind(mSession);
-        redraw(surface);
+        if(mSession.layout() != layout) {
+            surface.resync();
+        }
+        mFullRedraw = false;
+        mFramePending = false;
+        mDirtyCells.clear();
+        mModus.onDraw(surface);
+        mTransitionCells += surface.endTransition();
+
+        long elapsed = System.nanoTime() - start;
+        mModeSwitches++;
+        mModeSwitchTotal += elapsed;
+        mModeSwitchMax = Math.max(mModeSwitchMax, elapsed);
     }
 
+    public long modeSwitches() { return mModeSwitches; }
+    public long modeSwitchAverageMicros() { return mModeSwitches == 0 ? 0 : mModeSwitchTotal / mModeSwitches / 1000; }
+    public long modeSwitchMaxMicros() { return mModeSwitchMax / 1000; }
+    public long transitionCells() { return mTransitionCells; }
+
+    /**
+     * Marks the whole surface for redrawing on the next flush.
+     */
     public void redraw(LaunchpadXSurface surface) {
-        mModus.onDraw(surface);
+        mFullRedraw = true;
+        scheduleFrame();
+    }
+
+    /**
+     * Marks a single surface cell for redrawing on the next flush.
+     */
+    public void redraw(LaunchpadXSurface surface, int cell) {
+        mDirtyCells.set(cell);
+        scheduleFrame();
+    }
+
+    private void scheduleFrame() {
+        mRequestedRedraws++;
+        if(!mFramePending) {
+            mFramePending = true;
+            mHost.requestFlush();
+        }
+    }
+
+    public long requestedRedraws() { return mRequestedRedraws; }
+    public long executedRedraws() { return mExecutedRedraws; }
+
+    /**
+     * Draws everything marked since the last flush, in a single render pass.
+     */
+    public void flush(LaunchpadXSurface surface) {
+        if(mModus == null || !mFramePending) return;
+        mFramePending = false;
+        mExecutedRedraws++;
+        if(mFullRedraw) {
+            mModus.onDraw(surface);
+        } else {
+            for(int cell = mDirtyCells.nextSetBit(0); cell >= 0; cell = mDirtyCells.nextSetBit(cell + 1)) {
+                mModus.onDrawCell(surface, cell);
+            }
+        }
+        mFullRedraw = false;
+        mDirtyCells.clear();
     }
 
-    public void sendSysex(byte[] message) {
-        List<String> responses = mModes.get(mMode).processSysex(message);
-        for(String response : responses) {
+    public void sendSysex(ByteBuffer message) {
+        List<byte[]> responses = mModes.get(mMode).processSysex(message);
+        for(byte[] response : responses) {
             mSession.sendSysex(response);
         }
     }
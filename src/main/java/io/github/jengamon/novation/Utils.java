@@ -2,8 +2,7 @@ package io.github.jengamon.novation;
 
 import com.bitwig.extension.api.Color;
 
-import java.util.*;
-import java.util.stream.Collectors;
+import java.util.Arrays;
 
 public class Utils {
     private static final Color[] NOVATION_COLORS = new Color[]{
@@ -161,21 +160,131 @@ public class Utils {
         return NOVATION_COLORS[i];
     }
 
-    // Approximates to the closest valid color
+    // The RGB cube is split into CELL_COUNT^3 cells, and each cell keeps (in palette order) only the
+    // palette entries that can possibly be nearest to a color inside it, so a lookup scans a handful
+    // of entries instead of all 128.
+    private static final int CELL_SHIFT = 4;
+    private static final int CELL_COUNT = 256 >> CELL_SHIFT;
+    private static final int[] PALETTE_RGB = new int[NOVATION_COLORS.length];
+    private static final int[] CELL_OFFSETS = new int[CELL_COUNT * CELL_COUNT * CELL_COUNT + 1];
+    private static final byte[] CELL_CANDIDATES;
+    // Direct-mapped cache of recent lookups, each entry packed as (rgb << 8) | index
+    private static final int[] RECENT = new int[1024];
+
+    static {
+        for (int i = 0; i < NOVATION_COLORS.length; i++) {
+            Color color = NOVATION_COLORS[i];
+            PALETTE_RGB[i] = (color.getRed255() << 16) | (color.getGreen255() << 8) | color.getBlue255();
+        }
+
+        byte[] candidates = new byte[CELL_COUNT * CELL_COUNT * CELL_COUNT * NOVATION_COLORS.length];
+        double[] lower = new double[NOVATION_COLORS.length];
+        int count = 0;
+        int cell = 0;
+        for (int rc = 0; rc < CELL_COUNT; rc++) {
+            for (int gc = 0; gc < CELL_COUNT; gc++) {
+                for (int bc = 0; bc < CELL_COUNT; bc++) {
+                    CELL_OFFSETS[cell++] = count;
+                    int rLo = rc << CELL_SHIFT, rHi = rLo + (1 << CELL_SHIFT) - 1;
+                    int gLo = gc << CELL_SHIFT, gHi = gLo + (1 << CELL_SHIFT) - 1;
+                    int bLo = bc << CELL_SHIFT, bHi = bLo + (1 << CELL_SHIFT) - 1;
+                    double bestUpper = Double.MAX_VALUE;
+                    for (int i = 0; i < PALETTE_RGB.length; i++) {
+                        int pr = (PALETTE_RGB[i] >> 16) & 0xFF;
+                        int pg = (PALETTE_RGB[i] >> 8) & 0xFF;
+                        int pb = PALETTE_RGB[i] & 0xFF;
+                        int rbarLo = (rLo + pr) / 2;
+                        int rbarHi = (rHi + pr) / 2;
+                        double nearR = axisDistance(pr, rLo, rHi, false);
+                        double nearG = axisDistance(pg, gLo, gHi, false);
+                        double nearB = axisDistance(pb, bLo, bHi, false);
+                        double farR = axisDistance(pr, rLo, rHi, true);
+                        double farG = axisDistance(pg, gLo, gHi, true);
+                        double farB = axisDistance(pb, bLo, bHi, true);
+                        lower[i] = (2 + (rbarLo / 256.0)) * nearR * nearR + 4 * nearG * nearG
+                                + (2 + ((255 - rbarHi) / 256.0)) * nearB * nearB;
+                        double upper = (2 + (rbarHi / 256.0)) * farR * farR + 4 * farG * farG
+                                + (2 + ((255 - rbarLo) / 256.0)) * farB * farB;
+                        bestUpper = Math.min(bestUpper, upper);
+                    }
+                    // Keep a little slack so rounding in the exact metric can never exclude a tie
+                    double cutoff = bestUpper * (1 + 1e-9) + 1e-9;
+                    for (int i = 0; i < lower.length; i++) {
+                        if (lower[i] <= cutoff) {
+                            candidates[count++] = (byte) i;
+                        }
+                    }
+                }
+            }
+        }
+        CELL_OFFSETS[cell] = count;
+        CELL_CANDIDATES = Arrays.copyOf(candidates, count);
+        Arrays.fill(RECENT, -1);
+    }
+
+    private static double axisDistance(int value, int lo, int hi, boolean farthest) {
+        if (farthest) {
+            return Math.max(Math.abs(value - lo), Math.abs(value - hi));
+        } else if (value < lo) {
+            return lo - value;
+        } else if (value > hi) {
+            return value - hi;
+        } else {
+            return 0;
+        }
+    }
+
+    // redmean calc from https://www.compuphase.com/cmetric.htm
+    private static double colorDistance(int r, int g, int b, int paletteIndex) {
+        int rgb = PALETTE_RGB[paletteIndex];
+        int dr = r - ((rgb >> 16) & 0xFF);
+        int dg = g - ((rgb >> 8) & 0xFF);
+        int db = b - (rgb & 0xFF);
+        int rbar = (r + ((rgb >> 16) & 0xFF)) / 2;
+        return Math.sqrt(
+                (2 + (rbar / 256.0)) * (double) (dr * dr) +
+                        4 * (double) (dg * dg) +
+                        (2 + ((255 - rbar) / 256.0)) * (double) (db * db)
+        );
+    }
+
+    // Approximates to the closest valid color (the first one, if several are equally close)
     private static byte toNovationApprox(Color c) {
-        List<Color> colors = Arrays.asList(NOVATION_COLORS);
-        List<Double> colorDistance = colors.stream()
-                .map(color -> {
-                    // redmean calc from https://www.compuphase.com/cmetric.htm
-                    int rbar = (c.getRed255() + color.getRed255()) / 2;
-                    return Math.sqrt(
-                            (2 + (rbar / 256.0)) * Math.pow(c.getRed255() - color.getRed255(), 2) +
-                                    4 * Math.pow(c.getGreen255() - color.getGreen255(), 2) +
-                                    (2 + ((255 - rbar) / 256.0)) * Math.pow(c.getBlue255() - color.getBlue255(), 2)
-                    );
-                })
-                .collect(Collectors.toList());
-        return (byte) colorDistance.indexOf(Collections.min(colorDistance));
+        int r = c.getRed255();
+        int g = c.getGreen255();
+        int b = c.getBlue255();
+
+        int from = 0;
+        int to = PALETTE_RGB.length;
+        boolean inCube = ((r | g | b) & ~0xFF) == 0;
+        int rgb = (r << 16) | (g << 8) | b;
+        int slot = 0;
+        if (inCube) {
+            slot = (rgb ^ (rgb >>> 10) ^ (rgb >>> 20)) & (RECENT.length - 1);
+            int recent = RECENT[slot];
+            if (recent != -1 && (recent >>> 8) == rgb) {
+                return (byte) (recent & 0xFF);
+            }
+            int cell = (((r >> CELL_SHIFT) * CELL_COUNT) + (g >> CELL_SHIFT)) * CELL_COUNT + (b >> CELL_SHIFT);
+            from = CELL_OFFSETS[cell];
+            to = CELL_OFFSETS[cell + 1];
+        }
+
+        int best = -1;
+        double bestDistance = Double.MAX_VALUE;
+        for (int i = from; i < to; i++) {
+            int index = inCube ? CELL_CANDIDATES[i] : i;
+            double distance = colorDistance(r, g, b, index);
+            if (best < 0 || distance < bestDistance) {
+                best = index;
+                bestDistance = distance;
+            }
+        }
+
+        if (inCube) {
+            RECENT[slot] = (rgb << 8) | best;
+        }
+        return (byte) best;
     }
 
     // Use nicer approximations of Bitwig fixed colors
@@ -191,14 +300,4 @@ public class Utils {
         }
         return builder.toString();
     }
-
-    public static byte[] parseSysex(String sysex) {
-        String message = sysex.substring(12, sysex.length() - 2);
-//        System.out.println(sysex);
-        byte[] bytes = new byte[message.length() / 2];
-        for (int i = 0; i < bytes.length; i++) {
-            bytes[i] = (byte) (Integer.parseInt(message.substring(i * 2, i * 2 + 2), 16) & 0xff);
-        }
-        return bytes;
-    }
 }
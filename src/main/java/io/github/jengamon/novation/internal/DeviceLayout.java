@@ -0,0 +1,21 @@
+package io.github.jengamon.novation.internal;
+
+/**
+ * The layouts the device can show in DAW mode, and the ids used to select them.
+ */
+public enum DeviceLayout {
+    SESSION((byte)0x00),
+    NOTE((byte)0x01),
+    FADERS((byte)0x0D),
+
+    // Nothing selected by us yet
+    UNKNOWN((byte)-1);
+
+    private final byte mId;
+
+    DeviceLayout(byte id) {
+        mId = id;
+    }
+
+    public byte id() { return mId; }
+}
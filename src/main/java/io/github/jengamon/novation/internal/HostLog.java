@@ -0,0 +1,133 @@
+package io.github.jengamon.novation.internal;
+
+import com.bitwig.extension.controller.api.ControllerHost;
+
+/**
+ * Collects log lines in a bounded ring and hands them to the host once per flush,
+ * so MIDI and OSC handlers never wait on the console.
+ * Check {@link #isEnabled(Level)} before building a verbose line, so disabled levels cost nothing.
+ */
+public class HostLog {
+    public enum Level {
+        ERROR("Error"),
+        WARN("Warning"),
+        INFO("Info"),
+        DEBUG("Debug");
+
+        private final String mName;
+
+        Level(String name) {
+            mName = name;
+        }
+
+        public String displayName() {
+            return mName;
+        }
+
+        public static String[] displayNames() {
+            Level[] levels = values();
+            String[] names = new String[levels.length];
+            for(int i = 0; i < levels.length; i++) {
+                names[i] = levels[i].mName;
+            }
+            return names;
+        }
+
+        public static Level fromDisplayName(String name) {
+            for(Level level : values()) {
+                if(level.mName.equals(name)) return level;
+            }
+            return INFO;
+        }
+    }
+
+    private static final int CAPACITY = 256;
+
+    private final ControllerHost mHost;
+    private final String[] mLines = new String[CAPACITY];
+    private final Level[] mLevels = new Level[CAPACITY];
+    private int mHead;
+    private int mSize;
+    private long mDropped;
+    private boolean mFlushRequested;
+
+    private volatile Level mLevel = Level.INFO;
+
+    public HostLog(ControllerHost host) {
+        mHost = host;
+    }
+
+    public void setLevel(Level level) {
+        mLevel = level;
+    }
+
+    public boolean isEnabled(Level level) {
+        return level.ordinal() <= mLevel.ordinal();
+    }
+
+    public void error(String line) { log(Level.ERROR, line); }
+    public void warn(String line) { log(Level.WARN, line); }
+    public void info(String line) { log(Level.INFO, line); }
+    public void debug(String line) { log(Level.DEBUG, line); }
+
+    /**
+     * Queues a line for the next flush. When the ring is full, the oldest line is dropped.
+     */
+    public void log(Level level, String line) {
+        if(!isEnabled(level)) return;
+        boolean requestFlush;
+        synchronized(this) {
+            int tail = (mHead + mSize) % CAPACITY;
+            if(mSize == CAPACITY) {
+                mHead = (mHead + 1) % CAPACITY;
+                mDropped++;
+            } else {
+                mSize++;
+            }
+            mLines[tail] = line;
+            mLevels[tail] = level;
+            requestFlush = !mFlushRequested;
+            mFlushRequested = true;
+        }
+        // Lines logged outside of a flush still need one to get out
+        if(requestFlush) mHost.requestFlush();
+    }
+
+    /**
+     * Marks the start of a flush or of exit, which end with a {@link #drain()} anyway,
+     * so lines logged until then don't ask the host for another flush.
+     */
+    public synchronized void beginFlush() {
+        mFlushRequested = true;
+    }
+
+    /**
+     * Prints everything queued since the last drain. Errors go to the host's error console.
+     */
+    public void drain() {
+        long dropped;
+        synchronized(this) {
+            mFlushRequested = false;
+            dropped = mDropped;
+            mDropped = 0;
+        }
+        if(dropped > 0) mHost.errorln("(" + dropped + " log lines dropped)");
+        while(true) {
+            String line;
+            Level level;
+            synchronized(this) {
+                if(mSize == 0) return;
+                line = mLines[mHead];
+                level = mLevels[mHead];
+                mLines[mHead] = null;
+                mHead = (mHead + 1) % CAPACITY;
+                mSize--;
+            }
+            if(level == Level.ERROR) {
+                mHost.errorln(line);
+            } else {
+                mHost.println(line);
+            }
+        }
+    }
+}
@@ -1,31 +1,61 @@
 package io.github.jengamon.novation.internal;
 
-import com.bitwig.extension.controller.api.ControllerHost;
-
 import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.UnsupportedEncodingException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 
 /**
  * Buffers output for the ControllerHost, so we can use System.out.println...
+ * Bytes are collected per line and decoded as UTF-8 once the line is complete.
  * @author Jengamon
  */
 public class HostOutputStream extends OutputStream {
-    private final ControllerHost mHost;
-    private String mBuffer = "";
+    private final HostLog mLog;
+    private final HostLog.Level mLevel;
+    private byte[] mBuffer = new byte[128];
+    private int mLength;
 
+    public HostOutputStream(HostLog log) {
+        this(log, HostLog.Level.INFO);
+    }
 
-    public HostOutputStream(ControllerHost host) {
-        mHost = host;
+    protected HostOutputStream(HostLog log, HostLog.Level level) {
+        mLog = log;
+        mLevel = level;
+    }
+
+    /**
+     * Wraps this stream in a PrintStream that encodes as UTF-8, whatever the platform default is.
+     */
+    public PrintStream printStream() {
+        try {
+            return new PrintStream(this, true, StandardCharsets.UTF_8.name());
+        } catch(UnsupportedEncodingException e) {
+            return new PrintStream(this, true); // Unreachable, every JVM has UTF-8
+        }
+    }
+
+    @Override
+    public synchronized void write(int b) {
+        if(b == '\n') {
+            // Strip the CR of a CRLF line ending
+            int length = mLength > 0 && mBuffer[mLength - 1] == '\r' ? mLength - 1 : mLength;
+            mLog.log(mLevel, new String(mBuffer, 0, length, StandardCharsets.UTF_8));
+            mLength = 0;
+        } else {
+            if(mLength == mBuffer.length) {
+                mBuffer = Arrays.copyOf(mBuffer, mBuffer.length * 2);
+            }
+            mBuffer[mLength++] = (byte)b;
+        }
     }
 
     @Override
-    public void write(int b) {
-        switch((char)b) {
-            case '\n':
-                mHost.println(mBuffer);
-                mBuffer = "";
-                break;
-            default:
-                mBuffer += (char) b;
+    public synchronized void write(byte[] b, int off, int len) {
+        for(int i = off; i < off + len; i++) {
+            write(b[i]);
         }
     }
 }
@@ -0,0 +1,61 @@
+package io.github.jengamon.novation.internal;
+
+import java.util.Arrays;
+
+/**
+ * Counts latencies in fixed log-scale buckets: four per doubling, from 1 us up to about 16 s.
+ * Percentiles are reported as the upper edge of their bucket, so they are within 25% of the true value.
+ */
+public class LatencyHistogram {
+    private static final int SUB_BUCKETS = 4;
+    private static final int BUCKETS = SUB_BUCKETS * 24;
+
+    private final long[] mCounts = new long[BUCKETS];
+    private long mCount;
+    private long mMax;
+
+    public void record(long nanos) {
+        long micros = Math.max(0, nanos / 1000);
+        mCounts[bucket(micros)]++;
+        mCount++;
+        mMax = Math.max(mMax, micros);
+    }
+
+    public void reset() {
+        Arrays.fill(mCounts, 0);
+        mCount = 0;
+        mMax = 0;
+    }
+
+    public long count() { return mCount; }
+    public long maxMicros() { return mMax; }
+
+    /**
+     * The latency (in microseconds) that the given fraction of samples stays under.
+     */
+    public long percentileMicros(double fraction) {
+        if(mCount == 0) return 0;
+        long target = (long)Math.ceil(fraction * mCount);
+        long seen = 0;
+        for(int bucket = 0; bucket < BUCKETS; bucket++) {
+            seen += mCounts[bucket];
+            if(seen >= target) return Math.min(upperBound(bucket), mMax);
+        }
+        return mMax;
+    }
+
+    private static int bucket(long micros) {
+        if(micros < SUB_BUCKETS) return (int)micros;
+        int octave = 63 - Long.numberOfLeadingZeros(micros);
+        int sub = (int)(micros >>> (octave - 2)) & (SUB_BUCKETS - 1);
+        return Math.min(BUCKETS - 1, (octave - 1) * SUB_BUCKETS + sub);
+    }
+
+    // Smallest latency that no longer falls in the bucket
+    private static long upperBound(int bucket) {
+        if(bucket < SUB_BUCKETS) return bucket + 1;
+        int octave = bucket / SUB_BUCKETS + 1;
+        int sub = bucket % SUB_BUCKETS;
+        return (long)(SUB_BUCKETS + sub + 1) << (octave - 2);
+    }
+}
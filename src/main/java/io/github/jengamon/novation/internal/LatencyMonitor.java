@@ -0,0 +1,129 @@
+package io.github.jengamon.novation.internal;
+
+import java.util.Arrays;
+
+/**
+ * Measures how long it takes from a press on the device until the light that answers it is sent:
+ * the pressed pad's own LED for grid pads, and any LED of the scene's row (its clip slots or the
+ * scene button itself) for scene buttons. LEDs are identified by their programmer layout index, 11..99.
+ * Only the first press of a pad or scene is timed until it is answered; presses left unanswered for
+ * longer than {@link #TIMEOUT_NS} are counted instead of measured.
+ */
+public class LatencyMonitor {
+    public enum Input {
+        PAD("Pads"),
+        SCENE("Scenes");
+
+        private final String mName;
+
+        Input(String name) {
+            mName = name;
+        }
+    }
+
+    private static final long TIMEOUT_NS = 1000L * 1000 * 1000;
+    private static final int LED_COUNT = 100;
+    private static final int ROW_COUNT = 10;
+
+    private final Input[] mInputs = Input.values();
+    // Press times by LED index for pads, and by row (index / 10) for scenes; 0 when nothing is pending
+    private final long[] mPadPending = new long[LED_COUNT];
+    private final long[] mScenePending = new long[ROW_COUNT];
+    private final long[] mUnanswered = new long[mInputs.length];
+    private final LatencyHistogram[] mHistograms = new LatencyHistogram[mInputs.length];
+
+    public LatencyMonitor() {
+        for(int i = 0; i < mHistograms.length; i++) {
+            mHistograms[i] = new LatencyHistogram();
+        }
+    }
+
+    /**
+     * A press of the pad or scene button with the given LED index.
+     */
+    public void input(Input input, int led) {
+        switch(input) {
+            case PAD:
+                press(mPadPending, led, Input.PAD);
+                break;
+            case SCENE:
+                press(mScenePending, led / 10, Input.SCENE);
+                break;
+        }
+    }
+
+    private void press(long[] pending, int slot, Input input) {
+        long now = System.nanoTime();
+        if(pending[slot] != 0) {
+            if(now - pending[slot] <= TIMEOUT_NS) return;
+            mUnanswered[input.ordinal()]++;
+        }
+        pending[slot] = now;
+    }
+
+    /**
+     * The light with the given LED index left for the device.
+     */
+    public void ledSent(int led) {
+        if(led < 0 || led >= LED_COUNT) return;
+        if(mPadPending[led] != 0) {
+            answer(mPadPending[led], Input.PAD);
+            mPadPending[led] = 0;
+        }
+        int row = led / 10;
+        if(mScenePending[row] != 0) {
+            answer(mScenePending[row], Input.SCENE);
+            mScenePending[row] = 0;
+        }
+    }
+
+    private void answer(long start, Input input) {
+        long elapsed = System.nanoTime() - start;
+        if(elapsed > TIMEOUT_NS) {
+            mUnanswered[input.ordinal()]++;
+        } else {
+            mHistograms[input.ordinal()].record(elapsed);
+        }
+    }
+
+    public void reset() {
+        for(int i = 0; i < mInputs.length; i++) {
+            mUnanswered[i] = 0;
+            mHistograms[i].reset();
+        }
+        Arrays.fill(mPadPending, 0);
+        Arrays.fill(mScenePending, 0);
+    }
+
+    /**
+     * One line per input kind, with p50, p99 and maximum latency.
+     */
+    public String summary() {
+        expire(mPadPending, Input.PAD);
+        expire(mScenePending, Input.SCENE);
+        StringBuilder summary = new StringBuilder();
+        for(int i = 0; i < mInputs.length; i++) {
+            LatencyHistogram histogram = mHistograms[i];
+            if(i > 0) summary.append('\n');
+            summary.append(mInputs[i].mName).append(" to feedback: ").append(histogram.count()).append(" samples, p50 ")
+                    .append(histogram.percentileMicros(0.5)).append(" us, p99 ")
+                    .append(histogram.percentileMicros(0.99)).append(" us, max ")
+                    .append(histogram.maxMicros()).append(" us, ")
+                    .append(mUnanswered[i]).append(" unanswered");
+        }
+        return summary.toString();
+    }
+
+    /**
+     * Counts presses that have waited past the timeout, so they show up before the pad is pressed again.
+     */
+    private void expire(long[] pending, Input input) {
+        long now = System.nanoTime();
+        for(int i = 0; i < pending.length; i++) {
+            if(pending[i] != 0 && now - pending[i] > TIMEOUT_NS) {
+                pending[i] = 0;
+                mUnanswered[input.ordinal()]++;
+            }
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package io.github.jengamon.novation.internal;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Collects pad light states during a flush, so they can be sent as "LED lighting" SysEx (command 03)
+ * frames instead of one short message per color channel.
+ * Remembers what was last sent to each LED, so unchanged pads are skipped.
+ */
+public class LedBatch {
+    // LED indices follow the programmer layout, 11..99
+    private static final int LED_COUNT = 100;
+    // Most colour specs the device accepts in a single message
+    private static final int SPECS_PER_FRAME = 81;
+    private static final int UNKNOWN = -1;
+    // SysEx header, command byte and terminator around the specs of a frame
+    private static final int FRAME_OVERHEAD = 8;
+    // One per priority, see priority()
+    private static final int PASSES = 3;
+
+    private final int[] mPending = new int[LED_COUNT];
+    private final int[] mSent = new int[LED_COUNT];
+    private final BitSet mDirty = new BitSet(LED_COUNT);
+    // Command byte plus up to four bytes per spec
+    private final byte[] mFrame = new byte[1 + SPECS_PER_FRAME * 4];
+
+    public LedBatch() {
+        invalidate();
+    }
+
+    private static int pack(byte solid, byte blink, byte pulse) {
+        return ((solid & 0x7F) << 16) | ((blink & 0x7F) << 8) | (pulse & 0x7F);
+    }
+
+    public void set(int index, byte solid, byte blink, byte pulse) {
+        int state = pack(solid, blink, pulse);
+        mPending[index] = state;
+        mDirty.set(index, state != mSent[index]);
+    }
+
+    /**
+     * Forgets what the device is showing, so every LED is sent again the next time it is set.
+     */
+    public void invalidate() {
+        Arrays.fill(mSent, UNKNOWN);
+        mDirty.clear();
+    }
+
+    public boolean isEmpty() {
+        return mDirty.isEmpty();
+    }
+
+    /**
+     * Sends changed LEDs as SysEx frames through the session, and marks them as sent.
+     * Grid pads go first, blinking and pulsing ones included since they show clip state,
+     * then static scene and top row buttons, and their decorative pulses and flashes last.
+     * @param budget how many bytes may be sent; LEDs that don't fit stay queued
+     * @return whether every changed LED was sent
+     */
+    public boolean drain(Session session, int budget) {
+        int specs = 0;
+        int length = 0;
+        int used = 0;
+        boolean complete = true;
+        passes:
+        for(int pass = 0; pass < PASSES; pass++) {
+            for(int index = mDirty.nextSetBit(0); index >= 0; index = mDirty.nextSetBit(index + 1)) {
+                int state = mPending[index];
+                byte solid = (byte)((state >> 16) & 0x7F);
+                byte blink = (byte)((state >> 8) & 0x7F);
+                byte pulse = (byte)(state & 0x7F);
+                if(priority(index, blink > 0 || pulse > 0) != pass) continue;
+                int cost = (pulse == 0 && blink > 0 ? 4 : 3) + (specs == 0 ? FRAME_OVERHEAD : 0);
+                if(cost > budget - used) {
+                    complete = false;
+                    break passes;
+                }
+                used += cost;
+
+                if(specs == 0) {
+                    mFrame[0] = 0x03;
+                    length = 1;
+                }
+                if(pulse > 0) {
+                    mFrame[length++] = 0x02;
+                    mFrame[length++] = (byte)index;
+                    mFrame[length++] = pulse;
+                } else if(blink > 0) {
+                    mFrame[length++] = 0x01;
+                    mFrame[length++] = (byte)index;
+                    mFrame[length++] = solid;
+                    mFrame[length++] = blink;
+                } else {
+                    mFrame[length++] = 0x00;
+                    mFrame[length++] = (byte)index;
+                    mFrame[length++] = solid;
+                }
+                mSent[index] = state;
+                mDirty.clear(index);
+                session.latency().ledSent(index);
+                if(++specs == SPECS_PER_FRAME) {
+                    session.sendSysex(mFrame, length);
+                    specs = 0;
+                }
+            }
+        }
+        if(specs > 0) {
+            session.sendSysex(mFrame, length);
+        }
+        return complete;
+    }
+
+    /**
+     * Drain order, lowest first: grid pads, static buttons, animated buttons.
+     */
+    private static int priority(int index, boolean animated) {
+        if(isGridLed(index)) return 0;
+        return animated ? 2 : 1;
+    }
+
+    private static boolean isGridLed(int index) {
+        int row = index / 10;
+        int col = index % 10;
+        return row >= 1 && row <= 8 && col >= 1 && col <= 8;
+    }
+}
@@ -0,0 +1,41 @@
+package io.github.jengamon.novation.internal;
+
+import com.bitwig.extension.controller.api.PlayingNote;
+
+/**
+ * Highlights the pitches playing on the cursor track (on the DAW port, channel 16).
+ * Pitches are kept as 128-bit masks, and a flush sends only the notes that turned on or off
+ * since the last one, so held chords and fast clips don't flood the device.
+ */
+public class NoteHighlights {
+    private static final int HIGHLIGHT_COLOR = 21;
+
+    private final long[] mPlaying = new long[2];
+    private final long[] mShown = new long[2];
+
+    public void set(PlayingNote[] notes) {
+        mPlaying[0] = 0;
+        mPlaying[1] = 0;
+        for(PlayingNote note : notes) {
+            int pitch = note.pitch() & 0x7F;
+            mPlaying[pitch >> 6] |= 1L << (pitch & 63);
+        }
+    }
+
+    public void flush(Session session) {
+        for(int word = 0; word < 2; word++) {
+            long changed = mPlaying[word] ^ mShown[word];
+            while(changed != 0) {
+                int bit = Long.numberOfTrailingZeros(changed);
+                changed &= changed - 1;
+                int pitch = (word << 6) | bit;
+                if((mPlaying[word] & (1L << bit)) != 0) {
+                    session.sendMidi(0x9f, pitch, HIGHLIGHT_COLOR);
+                } else {
+                    session.sendMidi(0x8f, pitch, 0);
+                }
+            }
+            mShown[word] = mPlaying[word];
+        }
+    }
+}
@@ -16,9 +16,48 @@ public class Session {
 
     private final NoteInput noteInput;
 
-    private final static String SYSEX_HEADER = "f0 00 20 29 02 0c";
+    private final ControllerHost host;
+
+    private final LedBatch ledBatch = new LedBatch();
+    private final LatencyMonitor latency = new LatencyMonitor();
+    private boolean batchLeds = false;
+
+    // Output budget, roughly what a DIN MIDI cable carries (31250 baud, 10 bits per byte)
+    private final static int OUTPUT_BUDGET = 3125;
+    private final static int OUTPUT_BURST = OUTPUT_BUDGET / 4;
+    private final static long LED_RETRY_DELAY = 20L;
+    private boolean limitOutput = false;
+    private double outputTokens = OUTPUT_BURST;
+    private long tokenTime = System.currentTimeMillis();
+    private boolean ledRetryScheduled = false;
+
+    // Traffic accounting
+    private long noteMessages = 0;
+    private long ccMessages = 0;
+    private long otherMessages = 0;
+    private long sysexMessages = 0;
+    private long bytesSent = 0;
+    private long deferredLedFlushes = 0;
+    private long flushBytes = 0;
+    private long peakFlushBytes = 0;
+    private long windowStart = System.currentTimeMillis();
+    private long windowBytes = 0;
+    private long bytesPerSecond = 0;
+    private long peakBytesPerSecond = 0;
+
+    private DeviceLayout layout = DeviceLayout.UNKNOWN;
+
+    private final static byte[] SYSEX_HEADER_BYTES = new byte[] {(byte)0xF0, 0x00, 0x20, 0x29, 0x02, 0x0C};
+    private final static byte SYSEX_END = (byte)0xF7;
+
+    private final static byte[] LIVE_MODE = new byte[] {0x0E, 0x00};
+    private final static byte[] DAW_MODE_ON = new byte[] {0x10, 0x01};
+    private final static byte[] DAW_MODE_OFF = new byte[] {0x10, 0x00};
+
+    private final byte[] layoutBody = new byte[2];
 
     public Session(ControllerHost host) {
+        this.host = host;
         dawIn = host.getMidiInPort(0);
         dawOut = host.getMidiOutPort(0);
 
@@ -29,9 +68,9 @@ public class Session {
         noteInput.setShouldConsumeEvents(false);
 
         // Switch to Live mode (if not already)
-        sendSysex("0e 00");
+        sendSysex(LIVE_MODE);
         // Switch on DAW mode (if not already)
-        sendSysex("10 01");
+        sendSysex(DAW_MODE_ON);
 
 //        forceSend();
     }
@@ -82,18 +121,169 @@ public class Session {
         return noteInput;
     }
 
-    public void sendSysex(String message) {
-        String sysex = SYSEX_HEADER + " " + message + " f7";
-        dawOut.sendSysex(sysex);
+    /**
+     * Sends a Novation SysEx message; the header and terminator are added around the body.
+     */
+    public void sendSysex(byte[] body) {
+        sendSysex(body, body.length);
+    }
+
+    /**
+     * Sends the first length bytes of body as a Novation SysEx message.
+     */
+    public void sendSysex(byte[] body, int length) {
+        int size = SYSEX_HEADER_BYTES.length + length + 1;
+        // A new array every time, as the host may still hold on to earlier ones
+        byte[] message = new byte[size];
+        System.arraycopy(SYSEX_HEADER_BYTES, 0, message, 0, SYSEX_HEADER_BYTES.length);
+        System.arraycopy(body, 0, message, SYSEX_HEADER_BYTES.length, length);
+        message[size - 1] = SYSEX_END;
+        dawOut.sendSysex(message);
+        sysexMessages++;
+        count(size);
     }
 
     public void sendMidi(int status, int data1, int data2) {
 //        if(status != 0) System.out.println(Utils.toHexString((byte)status) + "[" + Utils.toHexString((byte) data1) + " " + Utils.toHexString((byte) data2) + "]");
         dawOut.sendMidi(status, data1, data2);
+        int type = status & 0xF0;
+        if(type >= 0x80 && type <= 0xA0) {
+            noteMessages++;
+        } else if(type == 0xB0) {
+            ccMessages++;
+        } else {
+            otherMessages++;
+        }
+        count(3);
+    }
+
+    private void count(int bytes) {
+        long now = System.currentTimeMillis();
+        if(now - windowStart >= 1000) {
+            bytesPerSecond = windowBytes * 1000 / (now - windowStart);
+            peakBytesPerSecond = Math.max(peakBytesPerSecond, bytesPerSecond);
+            windowStart = now;
+            windowBytes = 0;
+        }
+        windowBytes += bytes;
+        bytesSent += bytes;
+        flushBytes += bytes;
+        if(limitOutput) outputTokens -= bytes;
+    }
+
+    /**
+     * Whether LED updates should be held back once the output budget is used up.
+     * Pad lights then always go through the LED batch, since only queued LEDs can wait.
+     */
+    public void setLimitOutput(boolean limit) {
+        if(limit != limitOutput && !batchLeds) {
+            ledBatch.invalidate();
+        }
+        limitOutput = limit;
+    }
+
+    private int availableBytes() {
+        long now = System.currentTimeMillis();
+        outputTokens = Math.min(OUTPUT_BURST, outputTokens + (now - tokenTime) * OUTPUT_BUDGET / 1000.0);
+        tokenTime = now;
+        return (int)Math.max(0, outputTokens);
+    }
+
+    /**
+     * Marks the start of a flush, for the per-flush burst size.
+     */
+    public void beginFlush() {
+        flushBytes = 0;
+    }
+
+    public void endFlush() {
+        peakFlushBytes = Math.max(peakFlushBytes, flushBytes);
+    }
+
+    public String trafficSummary() {
+        return "MIDI out: " + noteMessages + " note, " + ccMessages + " CC, " + otherMessages + " other, "
+                + sysexMessages + " SysEx; " + bytesSent + " bytes, " + bytesPerSecond + " B/s (peak "
+                + peakBytesPerSecond + " B/s), largest flush " + peakFlushBytes + " bytes, "
+                + deferredLedFlushes + " LED flushes over budget";
+    }
+
+    public long noteMessages() { return noteMessages; }
+    public long ccMessages() { return ccMessages; }
+    public long otherMessages() { return otherMessages; }
+    public long sysexMessages() { return sysexMessages; }
+    public long bytesSent() { return bytesSent; }
+
+    /**
+     * Press-to-feedback latency, timed from presses marked by the mode machine to the pad lights sent for them.
+     */
+    public LatencyMonitor latency() {
+        return latency;
+    }
+
+    /**
+     * Selects the layout shown on the device.
+     */
+    public void selectLayout(DeviceLayout newLayout) {
+        layoutBody[0] = 0x00;
+        layoutBody[1] = newLayout.id();
+        sendSysex(layoutBody);
+        layout = newLayout;
+    }
+
+    public DeviceLayout layout() {
+        return layout;
+    }
+
+    /**
+     * Switches pad lighting between short MIDI messages and batched LED SysEx frames.
+     */
+    public void setBatchLeds(boolean batch) {
+        if(batch != batchLeds && !limitOutput) {
+            ledBatch.invalidate();
+        }
+        batchLeds = batch;
+    }
+
+    public boolean isBatchingLeds() {
+        return batchLeds || limitOutput;
+    }
+
+    /**
+     * Queues a pad light (by its programmer layout index) to be sent on the next {@link #flushLeds()}.
+     */
+    public void queueLed(int index, byte solid, byte blink, byte pulse) {
+        ledBatch.set(index, solid, blink, pulse);
+    }
+
+    /**
+     * Sends every queued pad light that differs from what was last sent.
+     * Over the output budget, the rest waits for a later flush.
+     */
+    public void flushLeds() {
+        if(ledBatch.isEmpty()) return;
+        int budget = limitOutput ? availableBytes() : Integer.MAX_VALUE;
+        boolean complete = ledBatch.drain(this, budget);
+        if(!complete) {
+            deferredLedFlushes++;
+            if(!ledRetryScheduled) {
+                ledRetryScheduled = true;
+                host.scheduleTask(() -> {
+                    ledRetryScheduled = false;
+                    host.requestFlush();
+                }, LED_RETRY_DELAY);
+            }
+        }
+    }
+
+    /**
+     * Forgets the cached pad lights, so the next flush resends all of them.
+     */
+    public void invalidateLeds() {
+        ledBatch.invalidate();
     }
 
     public void shutdown() {
-        sendSysex("10 00");
+        sendSysex(DAW_MODE_OFF);
 //        forceSend();
     }
 
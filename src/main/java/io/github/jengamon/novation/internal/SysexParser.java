@@ -0,0 +1,66 @@
+package io.github.jengamon.novation.internal;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Decodes incoming hex SysEx strings from the device straight into a reused buffer.
+ * Only messages with the Launchpad X header are accepted; the returned view holds the body
+ * between the header and the terminating F7, and is only valid until the next call to {@link #parse(String)}.
+ */
+public class SysexParser {
+    private static final byte[] HEADER = new byte[] {(byte)0xF0, 0x00, 0x20, 0x29, 0x02, 0x0C};
+    private static final byte SYSEX_END = (byte)0xF7;
+
+    private final byte[] mBuffer;
+    private final ByteBuffer mView;
+
+    public SysexParser(int capacity) {
+        // Leave room for the terminator
+        mBuffer = new byte[capacity + 1];
+        mView = ByteBuffer.wrap(mBuffer).asReadOnlyBuffer();
+    }
+
+    private static int nibble(char c) {
+        if(c >= '0' && c <= '9') return c - '0';
+        if(c >= 'a' && c <= 'f') return c - 'a' + 10;
+        if(c >= 'A' && c <= 'F') return c - 'A' + 10;
+        return -1;
+    }
+
+    /**
+     * @return a read-only view of the message body, or null if the message is malformed, truncated,
+     * too long, or not from a Launchpad X.
+     */
+    public ByteBuffer parse(String data) {
+        int decoded = 0;
+        int length = 0;
+        int high = -1;
+        for(int i = 0; i < data.length(); i++) {
+            char c = data.charAt(i);
+            if(Character.isWhitespace(c)) continue;
+            int value = nibble(c);
+            if(value < 0) return null;
+            if(high < 0) {
+                high = value;
+                continue;
+            }
+            byte b = (byte)((high << 4) | value);
+            high = -1;
+            if(decoded < HEADER.length) {
+                if(b != HEADER[decoded]) return null;
+            } else {
+                // Only the terminator may have its high bit set
+                if(length > 0 && mBuffer[length - 1] == SYSEX_END) return null;
+                if(b < 0 && b != SYSEX_END) return null;
+                if(length == mBuffer.length) return null;
+                mBuffer[length++] = b;
+            }
+            decoded++;
+        }
+        if(high >= 0 || length == 0 || mBuffer[length - 1] != SYSEX_END) return null;
+
+        mView.clear();
+        mView.limit(length - 1);
+        return mView;
+    }
+}
@@ -1,12 +1,14 @@
 package io.github.jengamon.novation.modes;
 
 import com.bitwig.extension.controller.api.HardwareBinding;
+import io.github.jengamon.novation.BindingLayer;
 import io.github.jengamon.novation.Mode;
 import io.github.jengamon.novation.ModeMachine;
 import io.github.jengamon.novation.internal.Session;
 import io.github.jengamon.novation.surface.LaunchpadXSurface;
 
-import java.util.ArrayList;
+import java.nio.ByteBuffer;
+import java.util.Collections;
 import java.util.List;
 
 public abstract class AbstractMode {
@@ -18,14 +20,40 @@ public abstract class AbstractMode {
         mTarget = target;
     }
 
+    protected final boolean isActive() {
+        return mModeMachine.mode() == mTarget;
+    }
+
     protected final void redraw(LaunchpadXSurface surface) {
-        if(mModeMachine.mode() == mTarget) {
+        if(isActive()) {
             mModeMachine.redraw(surface);
         }
     }
 
+    protected final void redraw(LaunchpadXSurface surface, int cell) {
+        if(isActive()) {
+            mModeMachine.redraw(surface, cell);
+        }
+    }
+
+    /**
+     * Called once at registration, to fill in the button actions of this mode.
+     */
+    public void onBuildLayer(LaunchpadXSurface surface, BindingLayer layer) {}
+
+    /**
+     * Called on every activation, for bindings that can't live in a layer (faders, aftertouch).
+     */
     public abstract List<HardwareBinding> onBind(LaunchpadXSurface surface);
-    public void onDraw(LaunchpadXSurface surface) {}
-    public List<String> processSysex(byte[] sysex) { return new ArrayList<>(); }
+    public void onDraw(LaunchpadXSurface surface) {
+        for(int cell = 0; cell < LaunchpadXSurface.CELL_COUNT; cell++) {
+            onDrawCell(surface, cell);
+        }
+    }
+    public void onDrawCell(LaunchpadXSurface surface, int cell) {}
+    /**
+     * Handles a SysEx message from the device; replies are bodies, without the header and terminator.
+     */
+    public List<byte[]> processSysex(ByteBuffer sysex) { return Collections.emptyList(); }
     public void finishedBind(Session session) {}
 }
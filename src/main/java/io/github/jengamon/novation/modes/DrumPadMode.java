@@ -2,39 +2,59 @@ package io.github.jengamon.novation.modes;
 
 import com.bitwig.extension.api.Color;
 import com.bitwig.extension.controller.api.*;
+import io.github.jengamon.novation.BindingLayer;
+import io.github.jengamon.novation.internal.DeviceLayout;
 import io.github.jengamon.novation.internal.Session;
-import io.github.jengamon.novation.surface.LaunchpadXPad;
 import io.github.jengamon.novation.surface.LaunchpadXSurface;
 import io.github.jengamon.novation.surface.NoteButton;
 import io.github.jengamon.novation.surface.state.PadLightState;
 
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
-import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
-import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.DoubleConsumer;
 
 public class DrumPadMode extends AbstractMode {
     private final AtomicInteger mChannel = new AtomicInteger(0);
     private final DrumPadLight[] drumPadLights = new DrumPadLight[64];
-    private final HardwareActionBindable[] mPlayNote;
+    private final DoubleConsumer[] mPlayNote;
     private final HardwareActionBindable[] mReleaseNote;
     private final AbsoluteHardwarControlBindable[] mAftertouchNote;
     private final AbsoluteHardwarControlBindable mChannelPressure;
     private final ArrowPadLight[] mArrowLights = new ArrowPadLight[4];
     private final HardwareActionBindable[] mArrowActions = new HardwareActionBindable[4];
 
+    private static final byte[] DRUM_RACK_ON = new byte[] {0x0F, 0x01};
+    private static final byte[] DRUM_RACK_OFF = new byte[] {0x0F, 0x00};
+    private static final byte[] CHANNEL_QUERY = new byte[] {0x16};
+
+    // The channel query backs off while the reply stays the same, and only runs while this mode is shown
+    private static final long MIN_CHANNEL_QUERY_DELAY = 32L;
+    private static final long MAX_CHANNEL_QUERY_DELAY = 1024L;
+    private final ControllerHost mHost;
+    private final Session mSession;
+    private long mChannelQueryDelay = MIN_CHANNEL_QUERY_DELAY;
+    private int mChannelQueryGeneration = 0;
+    private long mChannelQueriesSent = 0;
+    private long mChannelChanges = 0;
+
+    // Playing pitches, one bit per MIDI note, so pad lights are a bit test
+    private final long[] mPlayingPitches = new long[2];
+    private final AtomicInteger mScrollPos = new AtomicInteger(0);
+
     private class ArrowPadLight {
         private final int mOffset;
         private final IntegerValue mScrollPosition;
         private final ColorValue mTrackColor;
-        public ArrowPadLight(LaunchpadXSurface surface, int offset, IntegerValue scrollPosition, ColorValue trackColor) {
+        public ArrowPadLight(LaunchpadXSurface surface, int cell, int offset, IntegerValue scrollPosition, ColorValue trackColor) {
             mOffset = offset;
             mScrollPosition = scrollPosition;
             mTrackColor = trackColor;
 
-            mScrollPosition.addValueObserver(sp -> redraw(surface));
-            mTrackColor.addValueObserver((r, g, b) -> redraw(surface));
+            mScrollPosition.addValueObserver(sp -> redraw(surface, cell));
+            mTrackColor.addValueObserver((r, g, b) -> redraw(surface, cell));
         }
 
         public void draw(MultiStateHardwareLight arrowLight) {
@@ -49,23 +69,23 @@ public class DrumPadMode extends AbstractMode {
 
     private class DrumPadLight {
         private final ColorValue mColor;
-        private final AtomicBoolean mPlaying;
+        private final int mIndex;
         private final BooleanValue mExists;
         private final BooleanValue mEnabled;
-        public DrumPadLight(LaunchpadXSurface surface, DrumPad drumPad, AtomicBoolean playing) {
+        public DrumPadLight(LaunchpadXSurface surface, int cell, DrumPad drumPad, int index) {
             mColor = drumPad.color();
-            mPlaying = playing;
+            mIndex = index;
             mExists = drumPad.exists();
             mEnabled = drumPad.isActivated();
 
-            mColor.addValueObserver((r, g, b) -> redraw(surface));
-            mExists.addValueObserver(e -> redraw(surface));
-            mEnabled.addValueObserver(e -> redraw(surface));
+            mColor.addValueObserver((r, g, b) -> redraw(surface, cell));
+            mExists.addValueObserver(e -> redraw(surface, cell));
+            mEnabled.addValueObserver(e -> redraw(surface, cell));
         }
 
         public void draw(MultiStateHardwareLight padLight) {
             if(mExists.get() && mEnabled.get()) {
-                if(mPlaying.get()) {
+                if(isPlaying(mScrollPos.get() + mIndex)) {
                     padLight.state().setValue(PadLightState.solidLight(78));
                 } else {
                     padLight.setColor(mColor.get());
@@ -77,67 +97,88 @@ public class DrumPadMode extends AbstractMode {
     }
 
     public DrumPadMode(ControllerHost host, Session session, LaunchpadXSurface surface, CursorDevice device) {
+        mHost = host;
+        mSession = session;
         BooleanValue mHasDrumPads = device.hasDrumPads();
         mHasDrumPads.addValueObserver(hdp -> {
             if(hdp) {
-                session.sendSysex("0f 01");
+                session.sendSysex(DRUM_RACK_ON);
             } else {
-                session.sendSysex("0f 00");
+                session.sendSysex(DRUM_RACK_OFF);
             }
         });
         int[] arrowOffsets = new int[]{16, -16, -4, 4};
         DrumPadBank mDrumBank = device.createDrumPadBank(64);
         SettableIntegerValue mScrollPosition = mDrumBank.scrollPosition();
-        AtomicInteger scrollPos = new AtomicInteger(0);
-        mScrollPosition.addValueObserver(scrollPos::set);
+        // Pads now show other pitches; their observers report what plays there
+        mScrollPosition.addValueObserver(sp -> {
+            mScrollPos.set(sp);
+            mPlayingPitches[0] = 0;
+            mPlayingPitches[1] = 0;
+            redraw(surface);
+        });
 
         for(int i = 0; i < 4; i++) {
             int offset = arrowOffsets[i];
-            mArrowLights[i] = new ArrowPadLight(surface, offset, mScrollPosition, device.channel().color());
+            mArrowLights[i] = new ArrowPadLight(surface, LaunchpadXSurface.arrowCell(i), offset, mScrollPosition, device.channel().color());
             mArrowActions[i] = host.createAction(() -> {
-                int newPos = scrollPos.get() + offset;
+                int newPos = mScrollPos.get() + offset;
                 if(newPos >= 0 && newPos < (128 - 63)) {
                     mScrollPosition.inc(offset);
                 }
             }, () -> "Scroll by " + offset);
         }
 
-        mPlayNote = new HardwareActionBindable[64];
+        mPlayNote = new DoubleConsumer[64];
         mReleaseNote = new HardwareActionBindable[64];
         mAftertouchNote = new AbsoluteHardwarControlBindable[64];
 
         NoteInput noteOut = session.noteInput();
 
+        // Drum pads are laid out by their drum note, so find the cell each one lands on
+        int[] drumCells = new int[64];
+        NoteButton[][] notes = surface.notes();
+        for(int row = 0; row < notes.length; row++) {
+            for(int col = 0; col < notes[row].length; col++) {
+                drumCells[notes[row][col].drum_id() - 36] = LaunchpadXSurface.gridCell(row, col);
+            }
+        }
+
         for(int i = 0; i < 64; i++) {
             DrumPad dpad = mDrumBank.getItemAt(i);
             BooleanValue hasContent = dpad.exists();
             hasContent.markInterested();
             BooleanValue notDeactivated = dpad.isActivated();
             notDeactivated.markInterested();
-            AtomicBoolean playing = new AtomicBoolean(false);
-
-            drumPadLights[i] = new DrumPadLight(surface, dpad, playing);
 
             int finalI = i;
+            int cell = drumCells[i];
+            drumPadLights[i] = new DrumPadLight(surface, cell, dpad, i);
+
             dpad.playingNotes().addValueObserver((pns) -> {
-                playing.set(Arrays.stream(pns).anyMatch((pn) -> pn.pitch() == finalI + mScrollPosition.get()));
-                redraw(surface);
+                int pitch = finalI + mScrollPos.get();
+                boolean playing = false;
+                for(PlayingNote pn : pns) {
+                    if(pn.pitch() == pitch) {
+                        playing = true;
+                        break;
+                    }
+                }
+                if(setPlaying(pitch, playing)) redraw(surface, cell);
             });
-            mPlayNote[i] = host.createAction(val -> {
+            mPlayNote[i] = val -> {
                 if(hasContent.get() && notDeactivated.get()) {
-                    noteOut.sendRawMidiEvent(0x90 | (0xF & mChannel.get()), scrollPos.get() + finalI, (int)Math.round(val * 127));
-                    playing.set(true);
-                    redraw(surface);
+                    noteOut.sendRawMidiEvent(0x90 | (0xF & mChannel.get()), mScrollPos.get() + finalI, (int)Math.round(val * 127));
+                    if(setPlaying(mScrollPos.get() + finalI, true)) redraw(surface, cell);
                 }
-            }, () -> "Play Drum Pad " + finalI);
+            };
             mReleaseNote[i] = host.createAction(() -> {
-                noteOut.sendRawMidiEvent(0x80 | (0xF & mChannel.get()), scrollPos.get() + finalI, 0);
-                playing.set(false);
-                redraw(surface);
+                noteOut.sendRawMidiEvent(0x80 | (0xF & mChannel.get()), mScrollPos.get() + finalI, 0);
+                if(setPlaying(mScrollPos.get() + finalI, false)) redraw(surface, cell);
             }, () -> "Release Drum Pad " + finalI);
             mAftertouchNote[i] = host.createAbsoluteHardwareControlAdjustmentTarget(val -> {
                 if(hasContent.get() && notDeactivated.get()) {
-                    noteOut.sendRawMidiEvent(0xA0 | (0xF & mChannel.get()), scrollPos.get() + finalI, (int)Math.round(val * 127));
+                    noteOut.sendRawMidiEvent(0xA0 | (0xF & mChannel.get()), mScrollPos.get() + finalI, (int)Math.round(val * 127));
                 }
             });
         }
@@ -145,31 +186,65 @@ public class DrumPadMode extends AbstractMode {
         mChannelPressure = host.createAbsoluteHardwareControlAdjustmentTarget(val ->
                 noteOut.sendRawMidiEvent(0xD0 | (0xF & mChannel.get()), (int)Math.round(val * 127), 0)
         );
+    }
+
+    private boolean isPlaying(int pitch) {
+        return (mPlayingPitches[pitch >> 6] & (1L << (pitch & 63))) != 0;
+    }
 
-        long channelQueryDelay = 32L;
+    /**
+     * @return whether the bit of this pitch flipped
+     */
+    private boolean setPlaying(int pitch, boolean playing) {
+        if(pitch < 0 || pitch > 127 || isPlaying(pitch) == playing) return false;
+        mPlayingPitches[pitch >> 6] ^= 1L << (pitch & 63);
+        return true;
+    }
 
-        host.scheduleTask(new Runnable() {
-            @Override
-            public void run() {
-                session.sendSysex("16");
-                host.scheduleTask(this, channelQueryDelay);
-            }
-        }, 1);
+    private void startChannelQueries() {
+        mChannelQueryDelay = MIN_CHANNEL_QUERY_DELAY;
+        queryChannel(++mChannelQueryGeneration);
+    }
+
+    private void queryChannel(int generation) {
+        // A newer query loop has started, or we left drum mode
+        if(generation != mChannelQueryGeneration || !isActive()) return;
+
+        mSession.sendSysex(CHANNEL_QUERY);
+        mChannelQueriesSent++;
+        mHost.scheduleTask(() -> queryChannel(generation), mChannelQueryDelay);
+        mChannelQueryDelay = Math.min(mChannelQueryDelay * 2, MAX_CHANNEL_QUERY_DELAY);
     }
 
+    public long channelQueriesSent() { return mChannelQueriesSent; }
+    public long channelChanges() { return mChannelChanges; }
+
     @Override
-    public void onDraw(LaunchpadXSurface surface) {
-        LaunchpadXPad[] arrows = surface.arrows();
-        for(int i = 0; i < arrows.length; i++) {
-            mArrowLights[i].draw(arrows[i].light());
+    public void onDrawCell(LaunchpadXSurface surface, int cell) {
+        if(LaunchpadXSurface.isGridCell(cell)) {
+            NoteButton noteButton = surface.notes()[cell / 8][cell % 8];
+            int did = noteButton.drum_id() - 36;
+            drumPadLights[did].draw(noteButton.light());
+        } else if(LaunchpadXSurface.isArrowCell(cell)) {
+            int i = cell - LaunchpadXSurface.ARROW_CELLS;
+            mArrowLights[i].draw(surface.arrows()[i].light());
         }
+    }
 
-        for(NoteButton[] noteRow : surface.notes()) {
-            for(NoteButton noteButton : noteRow) {
-                int did = noteButton.drum_id() - 36;
-                drumPadLights[did].draw(noteButton.light());
+    @Override
+    public void onBuildLayer(LaunchpadXSurface surface, BindingLayer layer) {
+        NoteButton[][] notes = surface.notes();
+        for(int row = 0; row < notes.length; row++) {
+            for(int col = 0; col < notes[row].length; col++) {
+                int did = notes[row][col].drum_id() - 36;
+                layer.bindPressed(LaunchpadXSurface.gridCell(row, col), mPlayNote[did]);
+                layer.bindReleased(LaunchpadXSurface.gridCell(row, col), mReleaseNote[did]);
             }
         }
+
+        for(int i = 0; i < mArrowActions.length; i++) {
+            layer.bindPressed(LaunchpadXSurface.arrowCell(i), mArrowActions[i]);
+        }
     }
 
     @Override
@@ -178,29 +253,30 @@ public class DrumPadMode extends AbstractMode {
         for(NoteButton[] noteRow : surface.notes()) {
             for(NoteButton noteButton : noteRow) {
                 int did = noteButton.drum_id() - 36;
-                bindings.add(noteButton.button().pressedAction().addBinding(mPlayNote[did]));
-                bindings.add(noteButton.button().releasedAction().addBinding(mReleaseNote[did]));
                 bindings.add(noteButton.aftertouch().addBindingWithRange(mAftertouchNote[did], 0.0, 1.0));
             }
         }
 
-        LaunchpadXPad[] arrows = new LaunchpadXPad[] {surface.up(), surface.down(), surface.left(), surface.right()};
-        for(int i = 0; i < arrows.length; i++) {
-            LaunchpadXPad pad = arrows[i];
-            bindings.add(pad.button().pressedAction().addBinding(mArrowActions[i]));
-        }
-
         bindings.add(surface.channelPressure().addBindingWithRange(mChannelPressure, 0.0, 1.0));
 
         return bindings;
     }
 
     @Override
-    public List<String> processSysex(byte[] sysex) {
-        List<String> responses = new ArrayList<>();
-        if (sysex[0] == 0x16) {
-            mChannel.set(sysex[4]);
+    public void finishedBind(Session session) {
+        session.selectLayout(DeviceLayout.NOTE);
+        startChannelQueries();
+    }
+
+    @Override
+    public List<byte[]> processSysex(ByteBuffer sysex) {
+        if (sysex.limit() > 4 && sysex.get(0) == 0x16) {
+            int channel = sysex.get(4);
+            if (mChannel.getAndSet(channel) != channel) {
+                mChannelChanges++;
+                mChannelQueryDelay = MIN_CHANNEL_QUERY_DELAY;
+            }
         }
-        return responses;
+        return Collections.emptyList();
     }
 }
@@ -2,12 +2,16 @@ package io.github.jengamon.novation.modes;
 
 import com.bitwig.extension.api.Color;
 import com.bitwig.extension.controller.api.*;
+import io.github.jengamon.novation.BindingLayer;
 import io.github.jengamon.novation.Utils;
+import io.github.jengamon.novation.internal.DeviceLayout;
+import io.github.jengamon.novation.internal.HostLog;
 import io.github.jengamon.novation.internal.Session;
 import io.github.jengamon.novation.modes.session.ArrowPadLight;
-import io.github.jengamon.novation.modes.session.SessionPadLight;
+import io.github.jengamon.novation.modes.session.SessionGridModel;
 import io.github.jengamon.novation.surface.LaunchpadXPad;
 import io.github.jengamon.novation.surface.LaunchpadXSurface;
+import io.github.jengamon.novation.surface.LedAnimator;
 import io.github.jengamon.novation.surface.state.PadLightState;
 
 import java.util.ArrayList;
@@ -18,29 +22,33 @@ public class SessionMode extends AbstractMode {
     private final SessionSceneLight[] sceneLights = new SessionSceneLight[8];
     private final HardwareActionBindable[] sceneLaunchActions = new HardwareActionBindable[8];
     private final HardwareActionBindable[] sceneLaunchReleaseActions = new HardwareActionBindable[8];
-    private final SessionPadLight[][] padLights = new SessionPadLight[8][8];
-    private final HardwareActionBindable[][] padActions = new HardwareActionBindable[8][8];
-    private final HardwareActionBindable[][] padReleaseActions = new HardwareActionBindable[8][8];
+    private final SessionGridModel mGrid;
     private final ArrowPadLight[] arrowLights = new ArrowPadLight[4];
-    private final HardwareBindable[] arrowActions;
+    private final HardwareActionBindable[] arrowActions;
 
     // References so we can compute local indices & touch pad lights
     private final ControllerHost host;
+    private final HostLog log;
+    private final LedAnimator animator;
     private final TrackBank trackBank;
     private final SceneBank sceneBank;
     private final BooleanValue mPulseSessionPads;
     private final RangedValue bpm;
     private final LaunchpadXSurface surface;
 
+    private static final byte[] SESSION_SETUP = new byte[] {0x14, 0x00, 0x00};
+
     // Color index for “yellow-ish” flash (tweak if needed)
     private static final int FLASH_YELLOW_COLOR = 62;
     // How long the pad should blink (ms)
     private static final int FLASH_DURATION_MS = 2000; // 1.2 seconds, tweak to taste
+    // How long a scene row should blink (ms)
+    private static final int ROW_FLASH_DURATION_MS = 500;
 
 
     /**
-     * Flash a single pad (one clip slot) using a yellow blink, then restore the
-     * exact previous PadLightState for that pad.
+     * Flash a single pad (one clip slot) using a yellow blink over its clip state.
+     * A new flash replaces any flash still showing.
      *
      * globalTrackIndex / globalSceneIndex come from BitX (0..N),
      * we map them into the current 8×8 Launchpad window using scrollPosition().
@@ -52,65 +60,32 @@ public class SessionMode extends AbstractMode {
         int localTrack = globalTrackIndex - trackScroll;
         int localScene = globalSceneIndex - sceneScroll;
 
-        host.println("Pad visual flash: globalTrack=" + globalTrackIndex +
-                " globalScene=" + globalSceneIndex +
-                " trackScroll=" + trackScroll +
-                " sceneScroll=" + sceneScroll +
-                " -> localTrack=" + localTrack +
-                " localScene=" + localScene);
+        if (log.isEnabled(HostLog.Level.DEBUG)) {
+            log.debug("Pad visual flash: globalTrack=" + globalTrackIndex +
+                    " globalScene=" + globalSceneIndex +
+                    " trackScroll=" + trackScroll +
+                    " sceneScroll=" + sceneScroll +
+                    " -> localTrack=" + localTrack +
+                    " localScene=" + localScene);
+        }
 
         // Check if that pad is visible in the 8×8 grid
         if (localTrack < 0 || localTrack >= 8 || localScene < 0 || localScene >= 8) {
-            host.println("Pad visual flash: target pad not in current window, no flash.");
+            log.debug("Pad visual flash: target pad not in current window, no flash.");
             return;
         }
 
-        LaunchpadXPad[][] pads = surface.notes();
-        MultiStateHardwareLight light = pads[localScene][localTrack].light();
-
-        // Save original state
-        InternalHardwareLightState current = light.state().currentValue();
-        PadLightState originalState = (current instanceof PadLightState)
-                ? (PadLightState) current
-                : null;
-
-        byte solid = 0;
-        byte blink = 0;
-        byte pulse = 0;
-
-        if (originalState != null) {
-            solid = originalState.solid();
-            blink = originalState.blink();
-            pulse = originalState.pulse();
+        cancelFlashes();
+        animator.blink(LaunchpadXSurface.gridCell(localScene, localTrack), FLASH_YELLOW_COLOR, FLASH_DURATION_MS);
+        if (log.isEnabled(HostLog.Level.DEBUG)) {
+            log.debug("   ⚡ Flashing pad [scene=" + localScene + ", track=" + localTrack + "] yellow");
         }
+    }
 
-        // Create a yellow blink over the existing solid/pulse
-        PadLightState flashState = new PadLightState(
-                bpm.getRaw(),
-                solid,
-                (byte) FLASH_YELLOW_COLOR,   // blink color = yellow-ish
-                pulse
-        );
-
-        light.state().setValue(flashState);
-        host.println("   ⚡ Flashing pad [scene=" + localScene + ", track=" + localTrack + "] yellow");
-        host.requestFlush();
-
-        // Restore original state after ~500ms
-        host.scheduleTask(() -> {
-            host.println("   ⏹ Restoring pad [scene=" + localScene + ", track=" + localTrack + "]");
-            LaunchpadXPad[][] padsAfter = surface.notes();
-            MultiStateHardwareLight lightAfter = padsAfter[localScene][localTrack].light();
-
-            if (originalState != null) {
-                lightAfter.state().setValue(originalState);
-            } else {
-                padLights[localScene][localTrack].draw(lightAfter);
-            }
-
-            host.requestFlush();
-        }, FLASH_DURATION_MS);
-
+    private void cancelFlashes() {
+        for (int cell = 0; cell < LaunchpadXSurface.SCENE_CELLS; cell++) {
+            animator.cancel(cell);
+        }
     }
 
     private class SessionSceneLight {
@@ -119,16 +94,16 @@ public class SessionMode extends AbstractMode {
         private final ColorValue mSceneColor;
         private final BooleanValue mSceneExists;
 
-        public SessionSceneLight(LaunchpadXSurface surface, Scene scene, BooleanValue pulseSessionPads, RangedValue bpm) {
+        public SessionSceneLight(LaunchpadXSurface surface, int cell, Scene scene, BooleanValue pulseSessionPads, RangedValue bpm) {
             mBPM = bpm;
             mPulseSessionPads = pulseSessionPads;
             mSceneColor = scene.color();
             mSceneExists = scene.exists();
 
-            mSceneColor.addValueObserver((r, g, b) -> redraw(surface));
-            mSceneExists.addValueObserver(e -> redraw(surface));
-            mBPM.addValueObserver(b -> redraw(surface));
-            mPulseSessionPads.addValueObserver(p -> redraw(surface));
+            mSceneColor.addValueObserver((r, g, b) -> redraw(surface, cell));
+            mSceneExists.addValueObserver(e -> redraw(surface, cell));
+            mBPM.addValueObserver(b -> redraw(surface, cell));
+            mPulseSessionPads.addValueObserver(p -> redraw(surface, cell));
         }
 
         public void draw(MultiStateHardwareLight sceneLight) {
@@ -144,13 +119,18 @@ public class SessionMode extends AbstractMode {
     }
 
     public SessionMode(TrackBank bank,
+                       SessionGridModel grid,
                        Transport transport,
                        LaunchpadXSurface surface,
                        ControllerHost host,
+                       HostLog log,
+                       LedAnimator animator,
                        BooleanValue pulseSessionPads,
                        AtomicBoolean launchAlt) {
 
         this.host = host;
+        this.log = log;
+        this.animator = animator;
         this.trackBank = bank;
         this.sceneBank = bank.sceneBank();
         this.mPulseSessionPads = pulseSessionPads;
@@ -166,7 +146,7 @@ public class SessionMode extends AbstractMode {
         // Set up scene buttons
         for (int i = 0; i < 8; i++) {
             Scene scene = sceneBank.getItemAt(i);
-            sceneLights[i] = new SessionSceneLight(surface, scene, pulseSessionPads, bpm);
+            sceneLights[i] = new SessionSceneLight(surface, LaunchpadXSurface.sceneCell(i), scene, pulseSessionPads, bpm);
             int finalI = i;
             sceneLaunchActions[i] = host.createAction(() -> {
                 if (launchAlt.get()) {
@@ -185,43 +165,9 @@ public class SessionMode extends AbstractMode {
             }, () -> "Release Scene " + finalI);
         }
 
-        // Setup pad lights and buttons
-        /*
-        The indices map the pad out as
-        0,0.......0,7
-        1,0.......1,7
-        ...
-        7,0.......7,7
-
-        since we want scenes to go down, we simply mark the indices as (scene, track)
-         */
-        for (int scene = 0; scene < 8; scene++) {
-            padActions[scene] = new HardwareActionBindable[8];
-            padLights[scene] = new SessionPadLight[8];
-            for (int trk = 0; trk < 8; trk++) {
-                Track track = bank.getItemAt(trk);
-                ClipLauncherSlotBank slotBank = track.clipLauncherSlotBank();
-                ClipLauncherSlot slot = slotBank.getItemAt(scene);
-
-                int finalTrk = trk;
-                int finalScene = scene;
-                padLights[scene][trk] = new SessionPadLight(surface, slot, track, bpm, this::redraw, scene);
-                padActions[scene][trk] = host.createAction(() -> {
-                    if (launchAlt.get()) {
-                        slot.launchAlt();
-                    } else {
-                        slot.launch();
-                    }
-                }, () -> "Press Scene " + finalScene + " Track " + finalTrk);
-                padReleaseActions[scene][trk] = host.createAction(() -> {
-                    if (launchAlt.get()) {
-                        slot.launchReleaseAlt();
-                    } else {
-                        slot.launchRelease();
-                    }
-                }, () -> "Release Scene " + finalScene + " Track " + finalTrk);
-            }
-        }
+        // Pad lights and launch actions live in the shared grid model, which tracks (track, scene)
+        mGrid = grid;
+        mGrid.addListener((trk, scene) -> redraw(surface, LaunchpadXSurface.gridCell(scene, trk)));
 
         arrowActions = new HardwareActionBindable[]{
                 sceneBank.scrollBackwardsAction(),
@@ -239,15 +185,15 @@ public class SessionMode extends AbstractMode {
 
         LaunchpadXPad[] arrows = surface.arrows();
         for (int i = 0; i < arrows.length; i++) {
-            arrowLights[i] = new ArrowPadLight(surface, arrowEnabled[i], this::redraw);
+            arrowLights[i] = new ArrowPadLight(surface, LaunchpadXSurface.arrowCell(i), arrowEnabled[i], this::redraw);
         }
     }
 
     // ======= NEW API: called from LaunchpadXExtension when BitX sends OSC =======
 
     /**
-     * Flash the whole scene row (all 8 pads) using a yellow blink, then restore
-     * the exact previous PadLightState for each pad.
+     * Flash the whole scene row (all 8 pads) using a yellow blink over their clip states.
+     * A new flash replaces any flash still showing.
      *
      * globalSceneIndex is the absolute scene index from BitX (0..N),
      * mapped into the current 8-row window using sceneBank.scrollPosition().
@@ -256,119 +202,69 @@ public class SessionMode extends AbstractMode {
         int sceneScroll = sceneBank.scrollPosition().get();
         int localScene = globalSceneIndex - sceneScroll;
 
-        host.println("Scene visual flash: globalScene=" + globalSceneIndex +
-                " scroll=" + sceneScroll + " -> localScene=" + localScene);
+        if (log.isEnabled(HostLog.Level.DEBUG)) {
+            log.debug("Scene visual flash: globalScene=" + globalSceneIndex +
+                    " scroll=" + sceneScroll + " -> localScene=" + localScene);
+        }
 
         if (localScene < 0 || localScene >= 8) {
-            host.println("Scene visual flash: target scene not in current window, no flash.");
+            log.debug("Scene visual flash: target scene not in current window, no flash.");
             return;
         }
 
-        LaunchpadXPad[][] pads = surface.notes();
-
-        // Save original states for this row
-        PadLightState[] originalStates = new PadLightState[8];
-
+        cancelFlashes();
         for (int trk = 0; trk < 8; trk++) {
-            MultiStateHardwareLight light = pads[localScene][trk].light();
-
-            InternalHardwareLightState current = light.state().currentValue();
-            PadLightState currentState = (current instanceof PadLightState)
-                    ? (PadLightState) current
-                    : null;
-
-            originalStates[trk] = currentState;
-
-            byte solid = 0;
-            byte blink = 0;
-            byte pulse = 0;
-
-            if (currentState != null) {
-                solid = currentState.solid();
-                blink = currentState.blink();
-                pulse = currentState.pulse();
-            }
-
-            // Create a *yellow blink* over the existing solid/pulse
-            PadLightState flashState = new PadLightState(
-                    bpm.getRaw(),
-                    solid,
-                    (byte) FLASH_YELLOW_COLOR, // blink color
-                    pulse
-            );
-
-            light.state().setValue(flashState);
+            animator.blink(LaunchpadXSurface.gridCell(localScene, trk), FLASH_YELLOW_COLOR, ROW_FLASH_DURATION_MS);
+        }
+        if (log.isEnabled(HostLog.Level.DEBUG)) {
+            log.debug("   ⚡ Flashing scene row " + localScene + " yellow");
         }
-
-        host.println("   ⚡ Flashing scene row " + localScene + " yellow");
-        host.requestFlush();
-
-        // Restore the original states after ~500ms (feels like the green "whoosh")
-        host.scheduleTask(() -> {
-            host.println("   ⏹ Restoring scene row " + localScene);
-            LaunchpadXPad[][] padsAfter = surface.notes();
-
-            for (int trk = 0; trk < 8; trk++) {
-                MultiStateHardwareLight light = padsAfter[localScene][trk].light();
-                PadLightState original = originalStates[trk];
-
-                if (original != null) {
-                    // If we had a real previous state, restore it exactly
-                    light.state().setValue(original);
-                } else {
-                    // Fall back to normal drawing if somehow null
-                    padLights[localScene][trk].draw(light);
-                }
-            }
-
-            host.requestFlush();
-        }, 500);
     }
 
     // ==========================================================================
 
     @Override
-    public List<HardwareBinding> onBind(LaunchpadXSurface surface) {
-        List<HardwareBinding> bindings = new ArrayList<>();
+    public void onBuildLayer(LaunchpadXSurface surface, BindingLayer layer) {
         for (int i = 0; i < 8; i++) {
-            bindings.add(surface.scenes()[i].button().pressedAction().addBinding(sceneLaunchActions[i]));
-            bindings.add(surface.scenes()[i].button().releasedAction().addBinding(sceneLaunchReleaseActions[i]));
+            layer.bindPressed(LaunchpadXSurface.sceneCell(i), sceneLaunchActions[i]);
+            layer.bindReleased(LaunchpadXSurface.sceneCell(i), sceneLaunchReleaseActions[i]);
         }
         for (int i = 0; i < 8; i++) {
             for (int j = 0; j < 8; j++) {
-                bindings.add(surface.notes()[i][j].button().pressedAction().addBinding(padActions[i][j]));
-                bindings.add(surface.notes()[i][j].button().releasedAction().addBinding(padReleaseActions[i][j]));
+                layer.bindPressed(LaunchpadXSurface.gridCell(i, j), mGrid.launchAction(j, i));
+                layer.bindReleased(LaunchpadXSurface.gridCell(i, j), mGrid.releaseAction(j, i));
             }
         }
-        LaunchpadXPad[] arrows = surface.arrows();
         for (int i = 0; i < 4; i++) {
-            bindings.add(arrows[i].button().pressedAction().addBinding(arrowActions[i]));
+            layer.bindPressed(LaunchpadXSurface.arrowCell(i), arrowActions[i]);
         }
-        return bindings;
     }
 
     @Override
-    public void onDraw(LaunchpadXSurface surface) {
-        LaunchpadXPad[] scenes = surface.scenes();
-        for (int i = 0; i < scenes.length; i++) {
-            sceneLights[i].draw(scenes[i].light());
-        }
-        LaunchpadXPad[] arrows = surface.arrows();
-        for (int i = 0; i < arrows.length; i++) {
-            arrowLights[i].draw(surface.arrows()[i].light());
-        }
+    public List<HardwareBinding> onBind(LaunchpadXSurface surface) {
+        return new ArrayList<>();
+    }
 
-        LaunchpadXPad[][] pads = surface.notes();
-        for (int scene = 0; scene < pads.length; scene++) {
-            for (int trk = 0; trk < pads[scene].length; trk++) {
-                padLights[scene][trk].draw(pads[scene][trk].light());
-            }
+    @Override
+    public void onDrawCell(LaunchpadXSurface surface, int cell) {
+        if (LaunchpadXSurface.isGridCell(cell)) {
+            int scene = cell / 8;
+            int trk = cell % 8;
+            // Flashes are layered over the clip state, so clip changes show through them
+            PadLightState state = animator.compose(cell, mGrid.lightState(trk, scene), bpm.getRaw());
+            surface.notes()[scene][trk].light().state().setValue(state);
+        } else if (LaunchpadXSurface.isSceneCell(cell)) {
+            int i = cell - LaunchpadXSurface.SCENE_CELLS;
+            sceneLights[i].draw(surface.scenes()[i].light());
+        } else if (LaunchpadXSurface.isArrowCell(cell)) {
+            int i = cell - LaunchpadXSurface.ARROW_CELLS;
+            arrowLights[i].draw(surface.arrows()[i].light());
         }
     }
 
     @Override
     public void finishedBind(Session session) {
-        session.sendSysex("14 00 00");
-        session.sendSysex("00 00");
+        session.sendSysex(SESSION_SETUP);
+        session.selectLayout(DeviceLayout.SESSION);
     }
 }
@@ -3,6 +3,7 @@ package io.github.jengamon.novation.modes.mixer;
 import com.bitwig.extension.controller.api.ControllerHost;
 import com.bitwig.extension.controller.api.Transport;
 import io.github.jengamon.novation.Mode;
+import io.github.jengamon.novation.internal.DeviceLayout;
 import io.github.jengamon.novation.internal.Session;
 import io.github.jengamon.novation.surface.LaunchpadXSurface;
 
@@ -21,6 +22,6 @@ public abstract class AbstractFaderMixerMode extends AbstractMixerMode {
     @Override
     public void finishedBind(Session session) {
         super.finishedBind(session);
-        session.sendSysex("00 0D");
+        session.selectLayout(DeviceLayout.FADERS);
     }
 }
@@ -1,6 +1,7 @@
 package io.github.jengamon.novation.modes.mixer;
 
 import com.bitwig.extension.controller.api.*;
+import io.github.jengamon.novation.BindingLayer;
 import io.github.jengamon.novation.Mode;
 import io.github.jengamon.novation.internal.Session;
 import io.github.jengamon.novation.modes.AbstractMode;
@@ -27,6 +28,7 @@ public abstract class AbstractMixerMode extends AbstractMode {
             Mode.MIXER_SOLO,
             Mode.MIXER_ARM
     };
+    private static final byte[] MIXER_SETUP = new byte[] {0x14, 0x6C, 0x02};
     private final HardwareActionBindable[] sceneActions = new HardwareActionBindable[8];
     protected int mModeColor;
 
@@ -36,8 +38,13 @@ public abstract class AbstractMixerMode extends AbstractMode {
         mMixerMode = mixerMode;
         mTargetMode = targetMode;
 
-        mBPM.markInterested();
         mModeColor = modeColor;
+        // The mode indicator pulses with the tempo, so the scene buttons are redrawn when the tempo changes
+        mBPM.addValueObserver(bpm -> {
+            for(int i = 0; i < 8; i++) {
+                redraw(lSurf, LaunchpadXSurface.sceneCell(i));
+            }
+        });
 
         for(int i = 0; i < 8; i++) {
             final int j = i;
@@ -45,32 +52,32 @@ public abstract class AbstractMixerMode extends AbstractMode {
         }
     }
 
-    public void drawMixerModeIndicator(LaunchpadXSurface surface, int padIndex) {
-        for(int i = 0; i < 8; i++) {
-            LaunchpadXPad scene = surface.scenes()[i];
-            if(i == padIndex) {
-                scene.light().state().setValue(PadLightState.pulseLight(mBPM.getRaw(), mModeColor));
-            } else {
-                scene.light().state().setValue(PadLightState.solidLight(1));
-            }
+    public void drawMixerModeIndicator(LaunchpadXSurface surface, int cell, int padIndex) {
+        if(!LaunchpadXSurface.isSceneCell(cell)) return;
+        int i = cell - LaunchpadXSurface.SCENE_CELLS;
+        LaunchpadXPad scene = surface.scenes()[i];
+        if(i == padIndex) {
+            scene.light().state().setValue(PadLightState.pulseLight(mBPM.getRaw(), mModeColor));
+        } else {
+            scene.light().state().setValue(PadLightState.solidLight(1));
         }
     }
 
     @Override
-    public List<HardwareBinding> onBind(LaunchpadXSurface surface) {
-        List<HardwareBinding> bindings = new ArrayList<>();
-
+    public void onBuildLayer(LaunchpadXSurface surface, BindingLayer layer) {
         for(int i = 0; i < 8; i++) {
-            LaunchpadXPad scene = surface.scenes()[i];
-            bindings.add(scene.button().pressedAction().addBinding(sceneActions[i]));
+            layer.bindPressed(LaunchpadXSurface.sceneCell(i), sceneActions[i]);
         }
+    }
 
-        return bindings;
+    @Override
+    public List<HardwareBinding> onBind(LaunchpadXSurface surface) {
+        return new ArrayList<>();
     }
 
     @Override
     public void finishedBind(Session session) {
-        session.sendSysex("14 6C 02");
+        session.sendSysex(MIXER_SETUP);
         mMixerMode.set(mTargetMode);
     }
 }
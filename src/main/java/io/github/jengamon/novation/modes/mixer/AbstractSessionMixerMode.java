@@ -1,69 +1,37 @@
 package io.github.jengamon.novation.modes.mixer;
 
 import com.bitwig.extension.controller.api.*;
+import io.github.jengamon.novation.BindingLayer;
 import io.github.jengamon.novation.Mode;
+import io.github.jengamon.novation.internal.DeviceLayout;
 import io.github.jengamon.novation.internal.Session;
 import io.github.jengamon.novation.modes.session.ArrowPadLight;
-import io.github.jengamon.novation.modes.session.SessionPadLight;
+import io.github.jengamon.novation.modes.session.SessionGridModel;
 import io.github.jengamon.novation.surface.LaunchpadXPad;
 import io.github.jengamon.novation.surface.LaunchpadXSurface;
+import io.github.jengamon.novation.surface.LedAnimator;
 import io.github.jengamon.novation.surface.NoteButton;
+import io.github.jengamon.novation.surface.state.PadLightState;
 
-import java.util.List;
-import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicReference;
 
 public abstract class AbstractSessionMixerMode extends AbstractMixerMode {
-    private final SessionPadLight[][] padLights = new SessionPadLight[7][8];
-    private final HardwareActionBindable[][] padActions = new HardwareActionBindable[7][8];
-    private final HardwareActionBindable[][] padReleaseActions = new HardwareActionBindable[7][8];
+    private final SessionGridModel mGrid;
+    private final LedAnimator mAnimator;
     private final ArrowPadLight[] arrowLights = new ArrowPadLight[4];
-    private final HardwareBindable[] arrowActions;
+    private final HardwareActionBindable[] arrowActions;
 
     public AbstractSessionMixerMode(AtomicReference<Mode> mixerMode, ControllerHost host,
-                                    Transport transport, LaunchpadXSurface surface, TrackBank bank, Mode targetMode, int modeColor, AtomicBoolean launchAlt) {
+                                    Transport transport, LaunchpadXSurface surface, TrackBank bank, SessionGridModel grid,
+                                    LedAnimator animator, Mode targetMode, int modeColor) {
         super(mixerMode, host, transport, surface, targetMode, modeColor);
 
-        // Setup pad lights and buttons
-        /*
-        The indicies map the pad out as
-        0,0.......0,7
-        1,0.......1,7
-        .          .
-        .          .
-        .          .
-        7,0.......7,7
-
-        since we want scenes to go down, we simply mark the indicies as (scene, track)
-         */
-        for(int scene = 0; scene < 7; scene++) {
-            padActions[scene] = new HardwareActionBindable[8];
-            padLights[scene] = new SessionPadLight[8];
-
-            for(int trk = 0; trk < 8; trk++) {
-                Track track = bank.getItemAt(trk);
-                ClipLauncherSlotBank slotBank = track.clipLauncherSlotBank();
-                ClipLauncherSlot slot = slotBank.getItemAt(scene);
-
-                final int finalScene = scene;
-                final int finalTrk = trk;
-                padLights[scene][trk] = new SessionPadLight(surface, slot, track, mBPM, this::redraw, scene);
-                padActions[scene][trk] = host.createAction(() -> {
-                    if (launchAlt.get()) {
-                        slot.launchAlt();
-                    } else {
-                        slot.launch();
-                    }
-                }, () -> "Press Scene " + finalScene + " Track " + finalTrk);
-                padReleaseActions[scene][trk] = host.createAction(() -> {
-                    if (launchAlt.get()) {
-                        slot.launchReleaseAlt();
-                    } else {
-                        slot.launchRelease();
-                    }
-                }, () -> "Release Scene " + finalScene + " Track " + finalTrk);
-            }
-        }
+        // The top seven rows show the shared session grid; the last row belongs to the mode
+        mGrid = grid;
+        mAnimator = animator;
+        mGrid.addListener((trk, scene) -> {
+            if(scene < 7) redraw(surface, LaunchpadXSurface.gridCell(scene, trk));
+        });
 
         arrowActions = new HardwareActionBindable[] {
                 bank.sceneBank().scrollBackwardsAction(),
@@ -81,7 +49,7 @@ public abstract class AbstractSessionMixerMode extends AbstractMixerMode {
 
         LaunchpadXPad[] arrows = surface.arrows();
         for(int i = 0; i < arrows.length; i++) {
-            arrowLights[i] = new ArrowPadLight(surface, arrowEnabled[i], mModeColor, this::redraw);
+            arrowLights[i] = new ArrowPadLight(surface, LaunchpadXSurface.arrowCell(i), arrowEnabled[i], mModeColor, this::redraw);
         }
     }
 
@@ -89,45 +57,42 @@ public abstract class AbstractSessionMixerMode extends AbstractMixerMode {
         return surface.notes()[7];
     }
 
-    @Override
-    public void onDraw(LaunchpadXSurface surface) {
-        super.onDraw(surface);
-
-        LaunchpadXPad[] arrows = surface.arrows();
-        for(int i = 0; i < arrows.length; i++) {
-            arrowLights[i].draw(arrows[i].light());
-        }
+    protected static boolean isFinalRowCell(int cell) {
+        return LaunchpadXSurface.isGridCell(cell) && cell / 8 == 7;
+    }
 
-        LaunchpadXPad[][] pads = surface.notes();
-        for(int i = 0; i < 7; i++) {
-            for(int j = 0; j < 8; j++) {
-                padLights[i][j].draw(pads[i][j].light());
-            }
+    @Override
+    public void onDrawCell(LaunchpadXSurface surface, int cell) {
+        super.onDrawCell(surface, cell);
+
+        if(LaunchpadXSurface.isArrowCell(cell)) {
+            int i = cell - LaunchpadXSurface.ARROW_CELLS;
+            arrowLights[i].draw(surface.arrows()[i].light());
+        } else if(LaunchpadXSurface.isGridCell(cell) && !isFinalRowCell(cell)) {
+            // Flashes show over the session grid here too, as they do in session mode
+            PadLightState state = mAnimator.compose(cell, mGrid.lightState(cell % 8, cell / 8), mBPM.getRaw());
+            surface.notes()[cell / 8][cell % 8].light().state().setValue(state);
         }
     }
 
     @Override
-    public List<HardwareBinding> onBind(LaunchpadXSurface surface) {
-        List<HardwareBinding> bindings = super.onBind(surface);
+    public void onBuildLayer(LaunchpadXSurface surface, BindingLayer layer) {
+        super.onBuildLayer(surface, layer);
 
         for(int i = 0; i < 7; i++) {
             for(int j = 0; j < 8; j++) {
-                NoteButton button = surface.notes()[i][j];
-                bindings.add(button.button().pressedAction().addBinding(padActions[i][j]));
-                bindings.add(button.button().releasedAction().addBinding(padReleaseActions[i][j]));
+                layer.bindPressed(LaunchpadXSurface.gridCell(i, j), mGrid.launchAction(j, i));
+                layer.bindReleased(LaunchpadXSurface.gridCell(i, j), mGrid.releaseAction(j, i));
             }
         }
-        LaunchpadXPad[] arrows = new LaunchpadXPad[]{surface.up(), surface.down(), surface.left(), surface.right()};
         for(int i = 0; i < 4; i++) {
-            bindings.add(arrows[i].button().pressedAction().addBinding(arrowActions[i]));
+            layer.bindPressed(LaunchpadXSurface.arrowCell(i), arrowActions[i]);
         }
-
-        return bindings;
     }
 
     @Override
     public void finishedBind(Session session) {
         super.finishedBind(session);
-        session.sendSysex("00 00");
+        session.selectLayout(DeviceLayout.SESSION);
     }
 }
@@ -27,16 +27,16 @@ public class ControlsMixer extends AbstractFaderMixerMode {
     private class FixedFaderLight {
         private final byte mColor;
         private final BooleanValue mExists;
-        public FixedFaderLight(LaunchpadXSurface surface, byte color, BooleanValue exists) {
+        public FixedFaderLight(LaunchpadXSurface surface, int cell, byte color, BooleanValue exists) {
             mExists = exists;
             mColor = color;
 
-            mExists.addValueObserver(e -> redraw(surface));
+            mExists.addValueObserver(e -> redraw(surface, cell));
         }
 
         public void draw(MultiStateHardwareLight light) {
             if(mExists.get()) {
-                light.state().setValue(new FaderLightState(mColor));
+                light.state().setValue(FaderLightState.of(mColor));
             } else {
                 light.setColor(Color.nullColor());
             }
@@ -53,20 +53,20 @@ public class ControlsMixer extends AbstractFaderMixerMode {
             RemoteControl control = controlPage.getParameter(i);
 
             byte faderColor = CONTROL_TAGS[i];
-            faderLights[i] = new FixedFaderLight(surface, faderColor, control.exists());
+            faderLights[i] = new FixedFaderLight(surface, LaunchpadXSurface.faderCell(i), faderColor, control.exists());
             controls[i] = control;
         }
     }
 
     @Override
-    public void onDraw(LaunchpadXSurface surface) {
-        super.onDraw(surface);
+    public void onDrawCell(LaunchpadXSurface surface, int cell) {
+        super.onDrawCell(surface, cell);
 
-        drawMixerModeIndicator(surface, 3);
+        drawMixerModeIndicator(surface, cell, 3);
 
-        Fader[] faders = surface.faders();
-        for(int i = 0; i < 8; i++) {
-            faderLights[i].draw(faders[i].light());
+        if(LaunchpadXSurface.isFaderCell(cell)) {
+            int i = cell - LaunchpadXSurface.FADER_CELLS;
+            faderLights[i].draw(surface.faders()[i].light());
         }
     }
 
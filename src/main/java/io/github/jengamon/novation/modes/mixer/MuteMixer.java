@@ -2,13 +2,13 @@ package io.github.jengamon.novation.modes.mixer;
 
 import com.bitwig.extension.api.Color;
 import com.bitwig.extension.controller.api.*;
+import io.github.jengamon.novation.BindingLayer;
 import io.github.jengamon.novation.Mode;
+import io.github.jengamon.novation.modes.session.SessionGridModel;
 import io.github.jengamon.novation.surface.LaunchpadXSurface;
-import io.github.jengamon.novation.surface.NoteButton;
+import io.github.jengamon.novation.surface.LedAnimator;
 import io.github.jengamon.novation.surface.state.PadLightState;
 
-import java.util.List;
-import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicReference;
 
 public class MuteMixer extends AbstractSessionMixerMode {
@@ -18,12 +18,12 @@ public class MuteMixer extends AbstractSessionMixerMode {
     private class MuteRowPadLight {
         private final BooleanValue mMute;
         private final BooleanValue mExists;
-        public MuteRowPadLight(LaunchpadXSurface surface, Track track) {
+        public MuteRowPadLight(LaunchpadXSurface surface, int cell, Track track) {
             mMute = track.mute();
             mExists = track.exists();
 
-            mMute.addValueObserver(s -> redraw(surface));
-            mExists.addValueObserver(e -> redraw(surface));
+            mMute.addValueObserver(s -> redraw(surface, cell));
+            mExists.addValueObserver(e -> redraw(surface, cell));
         }
 
         public void draw(MultiStateHardwareLight light) {
@@ -40,38 +40,33 @@ public class MuteMixer extends AbstractSessionMixerMode {
     }
 
     public MuteMixer(AtomicReference<Mode> mixerMode, ControllerHost host, Transport transport,
-                     LaunchpadXSurface surface, TrackBank bank, AtomicBoolean launchAlt) {
-        super(mixerMode, host, transport, surface, bank, Mode.MIXER_MUTE, 9, launchAlt);
+                     LaunchpadXSurface surface, TrackBank bank, SessionGridModel grid, LedAnimator animator) {
+        super(mixerMode, host, transport, surface, bank, grid, animator, Mode.MIXER_MUTE, 9);
 
         for(int i = 0; i < 8; i++) {
             Track track = bank.getItemAt(i);
-            mMutePads[i] = new MuteRowPadLight(surface, track);
+            mMutePads[i] = new MuteRowPadLight(surface, LaunchpadXSurface.gridCell(7, i), track);
             mMuteAction[i] = track.mute().toggleAction();
         }
     }
 
     @Override
-    public void onDraw(LaunchpadXSurface surface) {
-        super.onDraw(surface);
+    public void onDrawCell(LaunchpadXSurface surface, int cell) {
+        super.onDrawCell(surface, cell);
 
-        drawMixerModeIndicator(surface, 5);
+        drawMixerModeIndicator(surface, cell, 5);
 
-        NoteButton[] finalRow = getFinalRow(surface);
-        for(int i = 0; i < finalRow.length; i++) {
-            mMutePads[i].draw(finalRow[i].light());
+        if(isFinalRowCell(cell)) {
+            mMutePads[cell % 8].draw(getFinalRow(surface)[cell % 8].light());
         }
     }
 
     @Override
-    public List<HardwareBinding> onBind(LaunchpadXSurface surface) {
-        List<HardwareBinding> list = super.onBind(surface);
+    public void onBuildLayer(LaunchpadXSurface surface, BindingLayer layer) {
+        super.onBuildLayer(surface, layer);
 
-        NoteButton[] finalRow = getFinalRow(surface);
-        for(int i = 0; i < finalRow.length; i++) {
-            NoteButton pad = finalRow[i];
-            list.add(pad.button().pressedAction().addBinding(mMuteAction[i]));
+        for(int i = 0; i < 8; i++) {
+            layer.bindPressed(LaunchpadXSurface.gridCell(7, i), mMuteAction[i]);
         }
-
-        return list;
     }
 }
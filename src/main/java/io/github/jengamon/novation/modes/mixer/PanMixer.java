@@ -1,6 +1,7 @@
 package io.github.jengamon.novation.modes.mixer;
 
 import com.bitwig.extension.controller.api.*;
+import io.github.jengamon.novation.BindingLayer;
 import io.github.jengamon.novation.Mode;
 import io.github.jengamon.novation.modes.session.ArrowPadLight;
 import io.github.jengamon.novation.modes.session.TrackColorFaderLight;
@@ -20,18 +21,21 @@ public class PanMixer extends AbstractFaderMixerMode {
     private final HardwareActionBindable trackForwardAction;
     private final HardwareActionBindable trackBackwardAction;
 
+    private static final int BACK_CELL = LaunchpadXSurface.arrowCell(0);
+    private static final int FORWARD_CELL = LaunchpadXSurface.arrowCell(1);
+
     public PanMixer(AtomicReference<Mode> mixerMode, ControllerHost host, Transport transport,
                     LaunchpadXSurface surface, TrackBank bank) {
         super(mixerMode, host, transport, surface, Mode.MIXER_VOLUME, 80);
 
         for(int i = 0; i < 8; i++) {
             Track track = bank.getItemAt(i);
-            faderLights[i] = new TrackColorFaderLight(surface, track, this::redraw);
+            faderLights[i] = new TrackColorFaderLight(surface, LaunchpadXSurface.faderCell(i), track, this::redraw);
             pans[i] = track.pan();
         }
 
-        trackForwardLight = new ArrowPadLight(surface, bank.canScrollForwards(), mModeColor, this::redraw);
-        trackBackwardLight = new ArrowPadLight(surface, bank.canScrollBackwards(), mModeColor, this::redraw);
+        trackForwardLight = new ArrowPadLight(surface, FORWARD_CELL, bank.canScrollForwards(), mModeColor, this::redraw);
+        trackBackwardLight = new ArrowPadLight(surface, BACK_CELL, bank.canScrollBackwards(), mModeColor, this::redraw);
         trackForwardAction = bank.scrollForwardsAction();
         trackBackwardAction = bank.scrollBackwardsAction();
     }
@@ -40,20 +44,27 @@ public class PanMixer extends AbstractFaderMixerMode {
     private LaunchpadXPad getForward(LaunchpadXSurface surface) { return surface.down(); }
 
     @Override
-    public void onDraw(LaunchpadXSurface surface) {
-        super.onDraw(surface);
-
-        drawMixerModeIndicator(surface, 1);
-
-        Fader[] faders = surface.faders();
-        for(int i = 0; i < faders.length; i++) {
-            faderLights[i].draw(faders[i].light());
+    public void onDrawCell(LaunchpadXSurface surface, int cell) {
+        super.onDrawCell(surface, cell);
+
+        drawMixerModeIndicator(surface, cell, 1);
+
+        if(LaunchpadXSurface.isFaderCell(cell)) {
+            int i = cell - LaunchpadXSurface.FADER_CELLS;
+            faderLights[i].draw(surface.faders()[i].light());
+        } else if(cell == BACK_CELL) {
+            trackBackwardLight.draw(getBack(surface).light());
+        } else if(cell == FORWARD_CELL) {
+            trackForwardLight.draw(getForward(surface).light());
         }
+    }
 
-        LaunchpadXPad back = getBack(surface);
-        LaunchpadXPad frwd = getForward(surface);
-        trackBackwardLight.draw(back.light());
-        trackForwardLight.draw(frwd.light());
+    @Override
+    public void onBuildLayer(LaunchpadXSurface surface, BindingLayer layer) {
+        super.onBuildLayer(surface, layer);
+
+        layer.bindPressed(BACK_CELL, trackBackwardAction);
+        layer.bindPressed(FORWARD_CELL, trackForwardAction);
     }
 
     @Override
@@ -63,11 +74,6 @@ public class PanMixer extends AbstractFaderMixerMode {
         // Enable faders (and bind to proper set)
         surface.setupFaders(false, true, 29);
 
-        LaunchpadXPad back = getBack(surface);
-        LaunchpadXPad frwd = getForward(surface);
-        list.add(back.button().pressedAction().addBinding(trackBackwardAction));
-        list.add(frwd.button().pressedAction().addBinding(trackForwardAction));
-
         // Bind faders
         for(int i = 0; i < 8; i++) {
             Fader panFader = surface.faders()[i];
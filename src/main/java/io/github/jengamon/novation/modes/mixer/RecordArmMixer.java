@@ -2,13 +2,13 @@ package io.github.jengamon.novation.modes.mixer;
 
 import com.bitwig.extension.api.Color;
 import com.bitwig.extension.controller.api.*;
+import io.github.jengamon.novation.BindingLayer;
 import io.github.jengamon.novation.Mode;
+import io.github.jengamon.novation.modes.session.SessionGridModel;
 import io.github.jengamon.novation.surface.LaunchpadXSurface;
-import io.github.jengamon.novation.surface.NoteButton;
+import io.github.jengamon.novation.surface.LedAnimator;
 import io.github.jengamon.novation.surface.state.PadLightState;
 
-import java.util.List;
-import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicReference;
 
 public class RecordArmMixer extends AbstractSessionMixerMode {
@@ -20,16 +20,16 @@ public class RecordArmMixer extends AbstractSessionMixerMode {
         private final BooleanValue mHasNoteInput;
         private final BooleanValue mHasAudioInput;
         private final BooleanValue mExists;
-        public ArmRowPadLight(LaunchpadXSurface surface, Track track) {
+        public ArmRowPadLight(LaunchpadXSurface surface, int cell, Track track) {
             mArm = track.arm();
             mExists = track.exists();
             mHasAudioInput = track.sourceSelector().hasAudioInputSelected();
             mHasNoteInput = track.sourceSelector().hasNoteInputSelected();
 
-            mArm.addValueObserver(s -> redraw(surface));
-            mExists.addValueObserver(e -> redraw(surface));
-            mHasNoteInput.addValueObserver(n -> redraw(surface));
-            mHasAudioInput.addValueObserver(a -> redraw(surface));
+            mArm.addValueObserver(s -> redraw(surface, cell));
+            mExists.addValueObserver(e -> redraw(surface, cell));
+            mHasNoteInput.addValueObserver(n -> redraw(surface, cell));
+            mHasAudioInput.addValueObserver(a -> redraw(surface, cell));
         }
 
         public void draw(MultiStateHardwareLight light) {
@@ -48,40 +48,35 @@ public class RecordArmMixer extends AbstractSessionMixerMode {
     }
 
     public RecordArmMixer(AtomicReference<Mode> mixerMode, ControllerHost host, Transport transport,
-                          LaunchpadXSurface surface, TrackBank bank, AtomicBoolean launchAlt) {
-        super(mixerMode, host, transport, surface, bank, Mode.MIXER_ARM, 120, launchAlt);
+                          LaunchpadXSurface surface, TrackBank bank, SessionGridModel grid, LedAnimator animator) {
+        super(mixerMode, host, transport, surface, bank, grid, animator, Mode.MIXER_ARM, 120);
 
         for(int i = 0; i < 8; i++) {
             Track track = bank.getItemAt(i);
 
-            mArmPads[i] = new ArmRowPadLight(surface, track);
+            mArmPads[i] = new ArmRowPadLight(surface, LaunchpadXSurface.gridCell(7, i), track);
             mArmAction[i] = track.arm().toggleAction();
         }
     }
 
     @Override
-    public void onDraw(LaunchpadXSurface surface) {
-        super.onDraw(surface);
+    public void onDrawCell(LaunchpadXSurface surface, int cell) {
+        super.onDrawCell(surface, cell);
 
-        drawMixerModeIndicator(surface, 7);
+        drawMixerModeIndicator(surface, cell, 7);
 
-        NoteButton[] finalRow = getFinalRow(surface);
-        for(int i = 0; i < finalRow.length; i++) {
-            mArmPads[i].draw(finalRow[i].light());
+        if(isFinalRowCell(cell)) {
+            mArmPads[cell % 8].draw(getFinalRow(surface)[cell % 8].light());
         }
     }
 
     @Override
-    public List<HardwareBinding> onBind(LaunchpadXSurface surface) {
-        List<HardwareBinding> list = super.onBind(surface);
+    public void onBuildLayer(LaunchpadXSurface surface, BindingLayer layer) {
+        super.onBuildLayer(surface, layer);
 
         // Bind the final row of pads
-        NoteButton[] finalRow = getFinalRow(surface);
-        for(int i = 0; i < finalRow.length; i++) {
-            NoteButton pad = finalRow[i];
-            list.add(pad.button().pressedAction().setBinding(mArmAction[i]));
+        for(int i = 0; i < 8; i++) {
+            layer.bindPressed(LaunchpadXSurface.gridCell(7, i), mArmAction[i]);
         }
-
-        return list;
     }
 }
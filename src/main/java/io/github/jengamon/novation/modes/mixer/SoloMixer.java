@@ -2,13 +2,13 @@ package io.github.jengamon.novation.modes.mixer;
 
 import com.bitwig.extension.api.Color;
 import com.bitwig.extension.controller.api.*;
+import io.github.jengamon.novation.BindingLayer;
 import io.github.jengamon.novation.Mode;
+import io.github.jengamon.novation.modes.session.SessionGridModel;
 import io.github.jengamon.novation.surface.LaunchpadXSurface;
-import io.github.jengamon.novation.surface.NoteButton;
+import io.github.jengamon.novation.surface.LedAnimator;
 import io.github.jengamon.novation.surface.state.PadLightState;
 
-import java.util.List;
-import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicReference;
 
 public class SoloMixer extends AbstractSessionMixerMode {
@@ -18,12 +18,12 @@ public class SoloMixer extends AbstractSessionMixerMode {
     private class SoloRowPadLight {
         private final BooleanValue mSolo;
         private final BooleanValue mExists;
-        public SoloRowPadLight(LaunchpadXSurface surface, Track track) {
+        public SoloRowPadLight(LaunchpadXSurface surface, int cell, Track track) {
             mSolo = track.solo();
             mExists = track.exists();
 
-            mSolo.addValueObserver(s -> redraw(surface));
-            mExists.addValueObserver(e -> redraw(surface));
+            mSolo.addValueObserver(s -> redraw(surface, cell));
+            mExists.addValueObserver(e -> redraw(surface, cell));
         }
 
         public void draw(MultiStateHardwareLight light) {
@@ -40,38 +40,33 @@ public class SoloMixer extends AbstractSessionMixerMode {
     }
 
     public SoloMixer(AtomicReference<Mode> mixerMode, ControllerHost host, Transport transport,
-                     LaunchpadXSurface surface, TrackBank bank, AtomicBoolean launchAlt) {
-        super(mixerMode, host, transport, surface, bank, Mode.MIXER_SOLO, 124, launchAlt);
+                     LaunchpadXSurface surface, TrackBank bank, SessionGridModel grid, LedAnimator animator) {
+        super(mixerMode, host, transport, surface, bank, grid, animator, Mode.MIXER_SOLO, 124);
 
         for(int i = 0; i < 8; i++) {
             Track track = bank.getItemAt(i);
-            mSoloPads[i] = new SoloRowPadLight(surface, track);
+            mSoloPads[i] = new SoloRowPadLight(surface, LaunchpadXSurface.gridCell(7, i), track);
             mSoloAction[i] = track.solo().toggleAction();
         }
     }
 
     @Override
-    public void onDraw(LaunchpadXSurface surface) {
-        super.onDraw(surface);
+    public void onDrawCell(LaunchpadXSurface surface, int cell) {
+        super.onDrawCell(surface, cell);
 
-        drawMixerModeIndicator(surface, 6);
+        drawMixerModeIndicator(surface, cell, 6);
 
-        NoteButton[] finalRow = getFinalRow(surface);
-        for(int i = 0; i < finalRow.length; i++) {
-            mSoloPads[i].draw(finalRow[i].light());
+        if(isFinalRowCell(cell)) {
+            mSoloPads[cell % 8].draw(getFinalRow(surface)[cell % 8].light());
         }
     }
 
     @Override
-    public List<HardwareBinding> onBind(LaunchpadXSurface surface) {
-        List<HardwareBinding> list = super.onBind(surface);
+    public void onBuildLayer(LaunchpadXSurface surface, BindingLayer layer) {
+        super.onBuildLayer(surface, layer);
 
-        NoteButton[] finalRow = getFinalRow(surface);
-        for(int i = 0; i < finalRow.length; i++) {
-            NoteButton pad = finalRow[i];
-            list.add(pad.button().pressedAction().addBinding(mSoloAction[i]));
+        for(int i = 0; i < 8; i++) {
+            layer.bindPressed(LaunchpadXSurface.gridCell(7, i), mSoloAction[i]);
         }
-
-        return list;
     }
 }
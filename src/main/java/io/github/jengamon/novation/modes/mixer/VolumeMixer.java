@@ -1,6 +1,7 @@
 package io.github.jengamon.novation.modes.mixer;
 
 import com.bitwig.extension.controller.api.*;
+import io.github.jengamon.novation.BindingLayer;
 import io.github.jengamon.novation.Mode;
 import io.github.jengamon.novation.modes.session.ArrowPadLight;
 import io.github.jengamon.novation.modes.session.TrackColorFaderLight;
@@ -20,6 +21,9 @@ public class VolumeMixer extends AbstractFaderMixerMode {
     private final HardwareActionBindable trackForwardAction;
     private final HardwareActionBindable trackBackwardAction;
 
+    private static final int BACK_CELL = LaunchpadXSurface.arrowCell(2);
+    private static final int FORWARD_CELL = LaunchpadXSurface.arrowCell(3);
+
 
     public VolumeMixer(AtomicReference<Mode> mixerMode, ControllerHost host, Transport transport,
                        LaunchpadXSurface surface, TrackBank bank) {
@@ -28,12 +32,12 @@ public class VolumeMixer extends AbstractFaderMixerMode {
         for(int i = 0; i < 8; i++) {
             Track track = bank.getItemAt(i);
 
-            faderLights[i] = new TrackColorFaderLight(surface, track, this::redraw);
+            faderLights[i] = new TrackColorFaderLight(surface, LaunchpadXSurface.faderCell(i), track, this::redraw);
             volumes[i] = track.volume();
         }
 
-        trackForwardLight = new ArrowPadLight(surface, bank.canScrollForwards(), mModeColor, this::redraw);
-        trackBackwardLight = new ArrowPadLight(surface, bank.canScrollBackwards(), mModeColor, this::redraw);
+        trackForwardLight = new ArrowPadLight(surface, FORWARD_CELL, bank.canScrollForwards(), mModeColor, this::redraw);
+        trackBackwardLight = new ArrowPadLight(surface, BACK_CELL, bank.canScrollBackwards(), mModeColor, this::redraw);
         trackForwardAction = bank.scrollForwardsAction();
         trackBackwardAction = bank.scrollBackwardsAction();
     }
@@ -42,20 +46,27 @@ public class VolumeMixer extends AbstractFaderMixerMode {
     private LaunchpadXPad getForward(LaunchpadXSurface surface) { return surface.right(); }
 
     @Override
-    public void onDraw(LaunchpadXSurface surface) {
-        super.onDraw(surface);
-
-        drawMixerModeIndicator(surface, 0);
-
-        Fader[] faders = surface.faders();
-        for(int i = 0; i < faders.length; i++) {
-            faderLights[i].draw(faders[i].light());
+    public void onDrawCell(LaunchpadXSurface surface, int cell) {
+        super.onDrawCell(surface, cell);
+
+        drawMixerModeIndicator(surface, cell, 0);
+
+        if(LaunchpadXSurface.isFaderCell(cell)) {
+            int i = cell - LaunchpadXSurface.FADER_CELLS;
+            faderLights[i].draw(surface.faders()[i].light());
+        } else if(cell == BACK_CELL) {
+            trackBackwardLight.draw(getBack(surface).light());
+        } else if(cell == FORWARD_CELL) {
+            trackForwardLight.draw(getForward(surface).light());
         }
+    }
 
-        LaunchpadXPad back = getBack(surface);
-        LaunchpadXPad frwd = getForward(surface);
-        trackBackwardLight.draw(back.light());
-        trackForwardLight.draw(frwd.light());
+    @Override
+    public void onBuildLayer(LaunchpadXSurface surface, BindingLayer layer) {
+        super.onBuildLayer(surface, layer);
+
+        layer.bindPressed(BACK_CELL, trackBackwardAction);
+        layer.bindPressed(FORWARD_CELL, trackForwardAction);
     }
 
     @Override
@@ -65,11 +76,6 @@ public class VolumeMixer extends AbstractFaderMixerMode {
         // Enable faders
         surface.setupFaders(true, false, 21);
 
-        LaunchpadXPad back = getBack(surface);
-        LaunchpadXPad frwd = getForward(surface);
-        list.add(back.button().pressedAction().addBinding(trackBackwardAction));
-        list.add(frwd.button().pressedAction().addBinding(trackForwardAction));
-
         for(int i = 0; i < 8; i++) {
             Fader volumeFader = surface.faders()[i];
             list.add(volumes[i].addBinding(volumeFader.fader()));
@@ -6,23 +6,23 @@ import com.bitwig.extension.controller.api.MultiStateHardwareLight;
 import io.github.jengamon.novation.surface.LaunchpadXSurface;
 import io.github.jengamon.novation.surface.state.PadLightState;
 
-import java.util.function.Consumer;
+import java.util.function.ObjIntConsumer;
 
 public class ArrowPadLight {
     private final BooleanValue mIsValid;
     private final int mColor;
-    public ArrowPadLight(LaunchpadXSurface surface, BooleanValue isValid, int color, Consumer<LaunchpadXSurface> redraw) {
+    public ArrowPadLight(LaunchpadXSurface surface, int cell, BooleanValue isValid, int color, ObjIntConsumer<LaunchpadXSurface> redraw) {
         mIsValid = isValid;
         mColor = color;
 
-        mIsValid.addValueObserver(v -> redraw.accept(surface));
+        mIsValid.addValueObserver(v -> redraw.accept(surface, cell));
     }
 
-    public ArrowPadLight(LaunchpadXSurface surface, BooleanValue isValid, Consumer<LaunchpadXSurface> redraw) {
+    public ArrowPadLight(LaunchpadXSurface surface, int cell, BooleanValue isValid, ObjIntConsumer<LaunchpadXSurface> redraw) {
         mIsValid = isValid;
         mColor = 84;
 
-        mIsValid.addValueObserver(v -> redraw.accept(surface));
+        mIsValid.addValueObserver(v -> redraw.accept(surface, cell));
     }
 
     public void draw(MultiStateHardwareLight arrowLight) {
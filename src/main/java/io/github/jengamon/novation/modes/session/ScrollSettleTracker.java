@@ -0,0 +1,91 @@
+package io.github.jengamon.novation.modes.session;
+
+import com.bitwig.extension.controller.api.ControllerHost;
+import com.bitwig.extension.controller.api.SceneBank;
+import com.bitwig.extension.controller.api.TrackBank;
+import io.github.jengamon.novation.internal.HostLog;
+
+/**
+ * Runs a callback once the session window has reached a requested track and scene position,
+ * as reported by the banks' scroll position observers, or after a timeout if it never does.
+ * Only the latest request is kept.
+ */
+public class ScrollSettleTracker {
+    private final ControllerHost mHost;
+    private final HostLog mLog;
+    private final long mTimeoutMs;
+
+    private int mTrackPosition;
+    private int mScenePosition;
+
+    private Runnable mPending;
+    private int mTargetTrack;
+    private int mTargetScene;
+    private long mRequestTime;
+    private int mGeneration;
+
+    // Request to callback latency, in nanoseconds
+    private long mSettled;
+    private long mTimedOut;
+    private long mLatencyTotal;
+    private long mLatencyMax;
+
+    public ScrollSettleTracker(ControllerHost host, HostLog log, TrackBank bank, long timeoutMs) {
+        mHost = host;
+        mLog = log;
+        mTimeoutMs = timeoutMs;
+
+        SceneBank sceneBank = bank.sceneBank();
+        bank.scrollPosition().addValueObserver(p -> {
+            mTrackPosition = p;
+            check();
+        });
+        sceneBank.scrollPosition().addValueObserver(p -> {
+            mScenePosition = p;
+            check();
+        });
+    }
+
+    /**
+     * Calls onSettled once both banks are at the given positions, replacing any earlier request.
+     */
+    public void expect(int trackPosition, int scenePosition, Runnable onSettled) {
+        mPending = onSettled;
+        mTargetTrack = trackPosition;
+        mTargetScene = scenePosition;
+        mRequestTime = System.nanoTime();
+        final int generation = ++mGeneration;
+        if(check()) return;
+        mHost.scheduleTask(() -> {
+            if(generation != mGeneration || mPending == null) return;
+            mTimedOut++;
+            mLog.warn("Launchpad OSC: scroll did not settle within " + mTimeoutMs + " ms");
+            fire();
+        }, mTimeoutMs);
+    }
+
+    private boolean check() {
+        if(mPending == null || mTrackPosition != mTargetTrack || mScenePosition != mTargetScene) return false;
+        mSettled++;
+        fire();
+        return true;
+    }
+
+    private void fire() {
+        long latency = System.nanoTime() - mRequestTime;
+        mLatencyTotal += latency;
+        mLatencyMax = Math.max(mLatencyMax, latency);
+        if(mLog.isEnabled(HostLog.Level.DEBUG)) {
+            mLog.debug("Launchpad OSC: jump feedback after " + latency / 1000 + " us");
+        }
+        Runnable pending = mPending;
+        mPending = null;
+        pending.run();
+    }
+
+    public String summary() {
+        long count = mSettled + mTimedOut;
+        return mSettled + " settled, " + mTimedOut + " timed out, average "
+                + (count == 0 ? 0 : mLatencyTotal / count / 1000) + " us, max " + mLatencyMax / 1000 + " us";
+    }
+}
@@ -0,0 +1,184 @@
+package io.github.jengamon.novation.modes.session;
+
+import com.bitwig.extension.api.Color;
+import com.bitwig.extension.controller.api.*;
+import io.github.jengamon.novation.Utils;
+import io.github.jengamon.novation.surface.state.PadLightState;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Clip state of the visible session window, observed once and shared by every mode that
+ * shows clip slots. Modes draw a viewport of it and bind its launch actions.
+ */
+public class SessionGridModel {
+    public interface Listener {
+        void slotChanged(int track, int slot);
+    }
+
+    public static final int STOPPED = 0;
+    public static final int PLAYING = 1;
+    public static final int RECORDING = 2;
+
+    private final int mTrackCount;
+    private final int mSlotCount;
+    private final RangedValue mBPM;
+
+    private final int[][] mStates;
+    private final boolean[][] mQueued;
+    private final boolean[][] mHasContent;
+    private final boolean[][] mExists;
+    private final byte[][] mColors;
+    private final boolean[] mArmed;
+
+    private final HardwareActionBindable[][] mLaunchActions;
+    private final HardwareActionBindable[][] mReleaseActions;
+
+    private final List<Listener> mListeners = new ArrayList<>();
+    private int mObserverCount;
+
+    public SessionGridModel(ControllerHost host, TrackBank bank, int slotCount, RangedValue bpm, AtomicBoolean launchAlt) {
+        mTrackCount = bank.getSizeOfBank();
+        mSlotCount = slotCount;
+        mBPM = bpm;
+
+        mStates = new int[mTrackCount][slotCount];
+        mQueued = new boolean[mTrackCount][slotCount];
+        mHasContent = new boolean[mTrackCount][slotCount];
+        mExists = new boolean[mTrackCount][slotCount];
+        mColors = new byte[mTrackCount][slotCount];
+        mArmed = new boolean[mTrackCount];
+        mLaunchActions = new HardwareActionBindable[mTrackCount][slotCount];
+        mReleaseActions = new HardwareActionBindable[mTrackCount][slotCount];
+
+        mBPM.addValueObserver(b -> fireTrack(-1));
+        mObserverCount++;
+
+        for(int i = 0; i < mTrackCount; i++) {
+            final int track = i;
+            Track trk = bank.getItemAt(i);
+            ClipLauncherSlotBank slotBank = trk.clipLauncherSlotBank();
+
+            trk.arm().addValueObserver(a -> {
+                mArmed[track] = a;
+                fireTrack(track);
+            });
+            slotBank.addPlaybackStateObserver((slot, state, isQueued) -> {
+                if(slot < 0 || slot >= mSlotCount) return;
+                if(mStates[track][slot] == state && mQueued[track][slot] == isQueued) return;
+                mStates[track][slot] = state;
+                mQueued[track][slot] = isQueued;
+                fireSlot(track, slot);
+            });
+            mObserverCount += 2;
+
+            for(int j = 0; j < slotCount; j++) {
+                final int slotIndex = j;
+                ClipLauncherSlot slot = slotBank.getItemAt(j);
+
+                slot.hasContent().addValueObserver(hc -> {
+                    mHasContent[track][slotIndex] = hc;
+                    fireSlot(track, slotIndex);
+                });
+                slot.exists().addValueObserver(e -> {
+                    mExists[track][slotIndex] = e;
+                    fireSlot(track, slotIndex);
+                });
+                slot.color().addValueObserver((r, g, b) -> {
+                    mColors[track][slotIndex] = Utils.toNovation(Color.fromRGB(r, g, b));
+                    fireSlot(track, slotIndex);
+                });
+                // Scrolling moves the window without necessarily changing any of the above
+                slot.sceneIndex().addValueObserver(si -> fireSlot(track, slotIndex));
+                mObserverCount += 4;
+
+                mLaunchActions[track][slotIndex] = host.createAction(() -> {
+                    if(launchAlt.get()) {
+                        slot.launchAlt();
+                    } else {
+                        slot.launch();
+                    }
+                }, () -> "Press Scene " + slotIndex + " Track " + track);
+                mReleaseActions[track][slotIndex] = host.createAction(() -> {
+                    if(launchAlt.get()) {
+                        slot.launchReleaseAlt();
+                    } else {
+                        slot.launchRelease();
+                    }
+                }, () -> "Release Scene " + slotIndex + " Track " + track);
+            }
+        }
+    }
+
+    public void addListener(Listener listener) {
+        mListeners.add(listener);
+    }
+
+    private void fireSlot(int track, int slot) {
+        for(int l = 0; l < mListeners.size(); l++) {
+            mListeners.get(l).slotChanged(track, slot);
+        }
+    }
+
+    /**
+     * Notifies every slot of a track, or of the whole window when track is -1.
+     */
+    private void fireTrack(int track) {
+        int from = track < 0 ? 0 : track;
+        int to = track < 0 ? mTrackCount : track + 1;
+        for(int t = from; t < to; t++) {
+            for(int s = 0; s < mSlotCount; s++) {
+                fireSlot(t, s);
+            }
+        }
+    }
+
+    public int observerCount() { return mObserverCount; }
+
+    public int state(int track, int slot) { return mStates[track][slot]; }
+    public boolean isQueued(int track, int slot) { return mQueued[track][slot]; }
+
+    public HardwareActionBindable launchAction(int track, int slot) { return mLaunchActions[track][slot]; }
+    public HardwareActionBindable releaseAction(int track, int slot) { return mReleaseActions[track][slot]; }
+
+    public PadLightState lightState(int track, int slot) {
+        byte pulseColor = (byte)0;
+        byte blinkColor = (byte)0;
+        byte solidColor = (byte)0;
+
+        int state = mStates[track][slot];
+        boolean isQueued = mQueued[track][slot];
+        boolean exists = mExists[track][slot];
+
+        if(exists && mHasContent[track][slot]) {
+            byte slotColor = mColors[track][slot];
+            solidColor = slotColor;
+            if(state == PLAYING) {
+                if(isQueued) {
+                    blinkColor = 0x19;
+                } else {
+                    pulseColor = slotColor;
+                }
+            } else if(state == RECORDING) {
+                if(isQueued) {
+                    pulseColor = 6;
+                } else {
+                    blinkColor = 6;
+                }
+            } else if(state == STOPPED && isQueued) {
+                blinkColor = 5;
+            }
+        } else {
+            if(mArmed[track] && exists) {
+                solidColor = 0x7;
+            }
+            if(state == RECORDING && isQueued) {
+                pulseColor = 6;
+            }
+        }
+
+        return PadLightState.of(mBPM.getRaw(), solidColor, blinkColor, pulseColor);
+    }
+}
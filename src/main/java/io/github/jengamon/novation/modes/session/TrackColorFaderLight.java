@@ -5,26 +5,26 @@ import com.bitwig.extension.controller.api.*;
 import io.github.jengamon.novation.surface.LaunchpadXSurface;
 import io.github.jengamon.novation.surface.state.FaderLightState;
 
-import java.util.function.Consumer;
+import java.util.function.ObjIntConsumer;
 
 public class TrackColorFaderLight {
     private final BooleanValue mValid;
     private final ColorValue mColor;
 
-    public TrackColorFaderLight(LaunchpadXSurface surface, Track track, Consumer<LaunchpadXSurface> redraw) {
+    public TrackColorFaderLight(LaunchpadXSurface surface, int cell, Track track, ObjIntConsumer<LaunchpadXSurface> redraw) {
         mValid = track.exists();
         mColor = track.color();
 
-        mValid.addValueObserver(v -> redraw.accept(surface));
-        mColor.addValueObserver((r, g, b) -> redraw.accept(surface));
+        mValid.addValueObserver(v -> redraw.accept(surface, cell));
+        mColor.addValueObserver((r, g, b) -> redraw.accept(surface, cell));
     }
 
-    public TrackColorFaderLight(LaunchpadXSurface surface, Send send, Consumer<LaunchpadXSurface> redraw) {
+    public TrackColorFaderLight(LaunchpadXSurface surface, int cell, Send send, ObjIntConsumer<LaunchpadXSurface> redraw) {
         mValid = send.exists();
         mColor = send.sendChannelColor();
 
-        mValid.addValueObserver(v -> redraw.accept(surface));
-        mColor.addValueObserver((r, g, b) -> redraw.accept(surface));
+        mValid.addValueObserver(v -> redraw.accept(surface, cell));
+        mColor.addValueObserver((r, g, b) -> redraw.accept(surface, cell));
     }
 
     public void draw(MultiStateHardwareLight faderLight) {
@@ -32,7 +32,7 @@ public class TrackColorFaderLight {
             Color color = mColor.get();
 
             if(color.getRed() + color.getBlue() + color.getGreen() == 0.0) {
-                faderLight.state().setValue(new FaderLightState((byte)1));
+                faderLight.state().setValue(FaderLightState.of((byte)1));
             } else {
                 faderLight.setColor(mColor.get());
             }
@@ -24,10 +24,13 @@ public class CCButton extends LaunchpadXPad {
 
         mLight.state().onUpdateHardware(state -> {
             PadLightState padState = (PadLightState)state;
-            if(padState != null) {
+            if(padState != null && session.isBatchingLeds()) {
+                session.queueLed(cc, padState.solid(), padState.blink(), padState.pulse());
+            } else if(padState != null) {
                 session.sendMidi(0xB0, cc, padState.solid());
                 if(padState.blink() > 0) session.sendMidi(0xB1, cc, padState.blink());
                 if(padState.pulse() > 0) session.sendMidi(0xB2, cc, padState.pulse());
+                session.latency().ledSent(cc);
             }
         });
         mLight.setColorToStateFunction(color -> PadLightState.solidLight(Utils.toNovation(color)));
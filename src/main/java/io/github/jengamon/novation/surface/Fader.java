@@ -15,6 +15,19 @@ public class Fader {
     private final AtomicInteger mCC = new AtomicInteger(0);
 
     private final MidiIn mIn;
+    private boolean mLightStale;
+
+    // Value feedback, coalesced to one message per flush
+    private int mPendingValue = -1;
+    private int mSentValue = -1;
+    // The latest value Bitwig reported, whoever moved it
+    private int mTargetValue = -1;
+    private long mLastValueTime;
+    private long mValuesSent;
+    private long mValuesDropped;
+    private final Session mSession;
+    // Value matchers by CC, since the same few fader banks are set up again and again
+    private final AbsoluteHardwareValueMatcher[] mMatchers = new AbsoluteHardwareValueMatcher[128];
 
     public Fader(Session session, HardwareSurface surface, String name, double x, double y) {
         mFader = surface.createHardwareSlider(name);
@@ -25,22 +38,31 @@ public class Fader {
             FaderLightState faderState = (FaderLightState)state;
             if(faderState != null) {
                 session.sendMidi(0xB5, mCC.get(), faderState.solid());
+                mLightStale = false;
             }
         });
-        mLight.setColorToStateFunction(color -> new FaderLightState(Utils.toNovation(color)));
+        mLight.setColorToStateFunction(color -> FaderLightState.of(Utils.toNovation(color)));
 
         BooleanValue isUpdating = mFader.isUpdatingTargetValue();
         isUpdating.markInterested();
         mFader.targetValue().addValueObserver(tv -> {
             boolean didUpdate = isUpdating.get();
 //            System.out.println("DU>" + didUpdate);
-            if(!didUpdate) {
-                session.sendMidi(0xB4, mCC.get(), (int) Math.round(tv * 127));
+            mTargetValue = (int) Math.round(tv * 127);
+            if(didUpdate) {
+                // Moved on the device, which already shows this value; anything queued before is older
+                mSentValue = mTargetValue;
+                mPendingValue = -1;
+            } else {
+                // Only the latest value is kept, it goes out on the next flush
+                if(mPendingValue >= 0) mValuesDropped++;
+                mPendingValue = mTargetValue;
             }
         });
 
         mFader.setBounds(x, y, 10, 23);
         mIn = session.midiIn(ChannelType.DAW);
+        mSession = session;
     }
 
     public void resetColor() {
@@ -49,10 +71,64 @@ public class Fader {
 
     public int id() { return mCC.get(); }
     public void setId(int cc) {
-        mCC.set(cc);
-        AbsoluteHardwareValueMatcher faderChange = mIn.createAbsoluteCCValueMatcher(4, cc);
-        mFader.setAdjustValueMatcher(faderChange);
+        if(mCC.getAndSet(cc) == cc) return;
+        mSentValue = -1;
+        if(mMatchers[cc] == null) {
+            mMatchers[cc] = mIn.createAbsoluteCCValueMatcher(4, cc);
+        }
+        mFader.setAdjustValueMatcher(mMatchers[cc]);
+    }
+
+    /**
+     * Marks the light as forgotten by the device (the fader setup resets fader colors),
+     * so it is sent again on the next flush even if it didn't change.
+     */
+    public void invalidateLight() {
+        mLightStale = true;
     }
+
+    /**
+     * Marks the value as forgotten by the device (the fader setup resets fader positions),
+     * so the current one is sent again on the next flush.
+     */
+    public void invalidateValue() {
+        mSentValue = -1;
+        if(mPendingValue < 0) mPendingValue = mTargetValue;
+    }
+
+    public void flushLight() {
+        if(!mLightStale) return;
+        mLightStale = false;
+        FaderLightState faderState = (FaderLightState)mLight.state().currentValue();
+        if(faderState != null) {
+            mSession.sendMidi(0xB5, mCC.get(), faderState.solid());
+        }
+    }
+
+    /**
+     * Sends the latest value that came from Bitwig, unless the device already shows it
+     * or the last one went out less than minInterval ms ago.
+     * @return whether a value is still waiting to be sent
+     */
+    public boolean flushValue(long now, long minInterval) {
+        if(mPendingValue < 0) return false;
+        if(mPendingValue == mSentValue) {
+            mPendingValue = -1;
+            mValuesDropped++;
+            return false;
+        }
+        if(now - mLastValueTime < minInterval) return true;
+        mSession.sendMidi(0xB4, mCC.get(), mPendingValue);
+        mSentValue = mPendingValue;
+        mPendingValue = -1;
+        mLastValueTime = now;
+        mValuesSent++;
+        return false;
+    }
+
+    public long valuesSent() { return mValuesSent; }
+    public long valuesDropped() { return mValuesDropped; }
+
     public HardwareSlider fader() { return mFader; }
     public MultiStateHardwareLight light() { return mLight; }
 }
@@ -18,7 +18,7 @@ public abstract class LaunchpadXPad {
     public void updateBPM(double newBPM) {
         PadLightState state = (PadLightState)light().state().currentValue();
         if(state != null) {
-            PadLightState newState = new PadLightState(newBPM, state.solid(), state.blink(), state.pulse());
+            PadLightState newState = PadLightState.of(newBPM, state.solid(), state.blink(), state.pulse());
             light().state().setValue(newState);
         }
     }
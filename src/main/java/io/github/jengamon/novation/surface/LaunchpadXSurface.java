@@ -1,17 +1,17 @@
 package io.github.jengamon.novation.surface;
 
 import com.bitwig.extension.controller.api.*;
-import io.github.jengamon.novation.Utils;
 import io.github.jengamon.novation.internal.ChannelType;
 import io.github.jengamon.novation.internal.Session;
 
-import java.util.Arrays;
+import java.util.Objects;
 
 public class LaunchpadXSurface {
     private final CCButton mUpArrow;
     private final CCButton mDownArrow;
     private final CCButton mLeftArrow;
     private final CCButton mRightArrow;
+    private final LaunchpadXPad[] mArrows;
     private final CCButton mSessionButton;
     private final CCButton mNoteButton;
     private final CCButton mCustomButton;
@@ -19,6 +19,7 @@ public class LaunchpadXSurface {
     private final CCButton mNovationButton;
     private final AbsoluteHardwareControl mChannelPressure;
     private final Session mSession;
+    private final ControllerHost mHost;
     private final HardwareSurface mSurface;
 
     private final CCButton[] mSceneButtons;
@@ -26,6 +27,37 @@ public class LaunchpadXSurface {
     private final NoteButton[][] mNoteButtons;
 
     private final Fader[] mFaders;
+    // What every cell showed before a transition started
+    private final InternalHardwareLightState[] mShown = new InternalHardwareLightState[CELL_COUNT];
+    private final byte[] mFaderSetup = new byte[3 + 8 * 4];
+    // The fader bank configuration the device currently has
+    private boolean mFadersConfigured;
+    private boolean mFaderVertical;
+    private int mFaderBipolar;
+    private int mFaderBaseCC;
+    // Shortest time between two value messages for the same fader, in ms (0 = once per flush)
+    private long mFaderFeedbackInterval;
+    private boolean mFaderRetryScheduled;
+
+    /*
+    Cells are the individually redrawable parts of the surface:
+    0..63 are the grid pads (row * 8 + col), followed by the 8 scene pads,
+    the 4 arrows (up, down, left, right) and the 8 faders.
+     */
+    public static final int SCENE_CELLS = 64;
+    public static final int ARROW_CELLS = SCENE_CELLS + 8;
+    public static final int FADER_CELLS = ARROW_CELLS + 4;
+    public static final int CELL_COUNT = FADER_CELLS + 8;
+
+    public static int gridCell(int row, int col) { return row * 8 + col; }
+    public static int sceneCell(int index) { return SCENE_CELLS + index; }
+    public static int arrowCell(int index) { return ARROW_CELLS + index; }
+    public static int faderCell(int index) { return FADER_CELLS + index; }
+
+    public static boolean isGridCell(int cell) { return cell >= 0 && cell < SCENE_CELLS; }
+    public static boolean isSceneCell(int cell) { return cell >= SCENE_CELLS && cell < ARROW_CELLS; }
+    public static boolean isArrowCell(int cell) { return cell >= ARROW_CELLS && cell < FADER_CELLS; }
+    public static boolean isFaderCell(int cell) { return cell >= FADER_CELLS && cell < CELL_COUNT; }
 
     //private int[] mVolumeFaderCCs = new int[]{21, 22, 23, 24, 25, 26, 27, 28};
     //private int[] mFaderCCs = new int[]{45, 46, 47, 48, 49, 50, 51, 52};
@@ -34,7 +66,7 @@ public class LaunchpadXSurface {
     public LaunchpadXPad down() { return mDownArrow; }
     public LaunchpadXPad left() { return  mLeftArrow; }
     public LaunchpadXPad right() { return mRightArrow; }
-    public LaunchpadXPad[] arrows() { return new LaunchpadXPad[] {mUpArrow, mDownArrow, mLeftArrow, mRightArrow}; }
+    public LaunchpadXPad[] arrows() { return mArrows; }
 
     public LaunchpadXPad session() { return mSessionButton; }
     public LaunchpadXPad note() { return mNoteButton; }
@@ -49,11 +81,30 @@ public class LaunchpadXSurface {
 
     public Fader[] faders() { return mFaders; }
 
+    /**
+     * The light of any cell, faders included.
+     */
+    public MultiStateHardwareLight light(int cell) {
+        if(isFaderCell(cell)) return mFaders[cell - FADER_CELLS].light();
+        return pad(cell).light();
+    }
+
+    /**
+     * The pad behind a grid, scene or arrow cell.
+     */
+    public LaunchpadXPad pad(int cell) {
+        if(isGridCell(cell)) return mNoteButtons[cell / 8][cell % 8];
+        if(isSceneCell(cell)) return mSceneButtons[cell - SCENE_CELLS];
+        if(isArrowCell(cell)) return mArrows[cell - ARROW_CELLS];
+        throw new IllegalArgumentException("Cell " + cell + " has no pad");
+    }
+
     public LaunchpadXSurface(ControllerHost host, Session session, HardwareSurface surface) {
         mUpArrow = new CCButton(session, surface, "Up", 91, 13, 13);
         mDownArrow = new CCButton(session, surface, "Down", 92, 13 + 23, 13);
         mLeftArrow = new CCButton(session, surface, "Left", 93, 13 + 23*2, 13);
         mRightArrow = new CCButton(session, surface, "Right", 94, 13 + 23*3, 13);
+        mArrows = new LaunchpadXPad[] {mUpArrow, mDownArrow, mLeftArrow, mRightArrow};
         mSessionButton = new CCButton(session, surface, "Session", 95, 13 + 23*4, 13);
         mNoteButton = new CCButton(session, surface, "Note", 96, 13 + 23*5, 13);
         mCustomButton = new CCButton(session, surface, "Custom", 97, 13+23*6, 13);
@@ -68,6 +119,7 @@ public class LaunchpadXSurface {
 
         mSession = session;
         mSurface = surface;
+        mHost = host;
 
         for(int i = 0; i < 8; i++) {
             mSceneButtons[i] = new CCButton(session, surface, "S" + (i+1), (8 - i) * 10 + 9, 13 + 23 * 8, 13 + 23 * (1 + i));
@@ -99,38 +151,122 @@ public class LaunchpadXSurface {
     }
 
     public void setupFaders(boolean vertical, boolean bipolar, int baseCC) {
-        boolean[] bipolars = new boolean[8];
-        Arrays.fill(bipolars, bipolar);
-        setupFaders(vertical, bipolars, baseCC);
+        setupFaders(vertical, bipolar ? 0xFF : 0x00, baseCC);
     }
 
     public void setupFaders(boolean vertical, boolean[] bipolar, int baseCC) {
-        StringBuilder sysexString = new StringBuilder();
-        sysexString.append("01 00");
-        if(vertical) {
-            sysexString.append("00 ");
-        } else {
-            sysexString.append("01 ");
+        int bipolarMask = 0;
+        for(int i = 0; i < 8; i++) {
+            if(bipolar[i]) bipolarMask |= 1 << i;
         }
-//        assert colors.length == 8;
+        setupFaders(vertical, bipolarMask, baseCC);
+    }
+
+    /**
+     * Configures the fader bank, unless the device already has this configuration.
+     * The fader lights and values are sent again, as the setup resets them.
+     */
+    private void setupFaders(boolean vertical, int bipolarMask, int baseCC) {
+        if(mFadersConfigured && mFaderVertical == vertical && mFaderBipolar == bipolarMask && mFaderBaseCC == baseCC) return;
+        mFadersConfigured = true;
+        mFaderVertical = vertical;
+        mFaderBipolar = bipolarMask;
+        mFaderBaseCC = baseCC;
+
+        // 01 00 <orientation>, then <index> <bipolar> <cc> <color> for each fader
+        mFaderSetup[0] = 0x01;
+        mFaderSetup[1] = 0x00;
+        mFaderSetup[2] = (byte)(vertical ? 0x00 : 0x01);
         for(int i = 0; i < 8; i++) {
-            int cc = baseCC + i;
-            sysexString.append(Utils.toHexString((byte)i));
-            if(bipolar[i]) {
-                sysexString.append("01");
-            } else {
-                sysexString.append("00");
-            }
-            sysexString.append(Utils.toHexString((byte)cc));
-//            sysexString.append(Utils.toHexString((byte)colors[i]));
-            sysexString.append("00 ");
+            mFaderSetup[3 + i * 4] = (byte)i;
+            mFaderSetup[4 + i * 4] = (byte)((bipolarMask >> i) & 1);
+            mFaderSetup[5 + i * 4] = (byte)(baseCC + i);
+            mFaderSetup[6 + i * 4] = 0x00;
         }
-        mSurface.invalidateHardwareOutputState();
-        mSession.sendSysex(sysexString.toString());
+        mSession.sendSysex(mFaderSetup);
 
         for(int i = 0; i < 8; i++) {
             mFaders[i].setId(baseCC + i);
+            mFaders[i].invalidateLight();
+            mFaders[i].invalidateValue();
+        }
+    }
+
+    /**
+     * Sends the fader lights the device lost to a fader setup. Runs after the hardware update,
+     * so they go out with the colors of the new mode.
+     */
+    public void flushFaderLights() {
+        for(Fader fader : mFaders) {
+            fader.flushLight();
+        }
+    }
+
+    public void setFaderFeedbackInterval(long ms) {
+        mFaderFeedbackInterval = ms;
+    }
+
+    /**
+     * Sends the latest Bitwig value of each fader, at most one per fader per flush.
+     * Values held back by the rate limit are retried with a later flush.
+     */
+    public void flushFaderValues() {
+        long now = System.currentTimeMillis();
+        boolean waiting = false;
+        for(Fader fader : mFaders) {
+            waiting |= fader.flushValue(now, mFaderFeedbackInterval);
+        }
+        if(waiting && !mFaderRetryScheduled) {
+            mFaderRetryScheduled = true;
+            mHost.scheduleTask(() -> {
+                mFaderRetryScheduled = false;
+                mHost.requestFlush();
+            }, mFaderFeedbackInterval);
+        }
+    }
+
+    public long faderValuesSent() {
+        long sent = 0;
+        for(Fader fader : mFaders) sent += fader.valuesSent();
+        return sent;
+    }
+
+    public long faderValuesDropped() {
+        long dropped = 0;
+        for(Fader fader : mFaders) dropped += fader.valuesDropped();
+        return dropped;
+    }
+
+    /**
+     * Forces every light to be sent to the device again on the next flush.
+     */
+    public void resync() {
+        mSurface.invalidateHardwareOutputState();
+        mSession.invalidateLeds();
+    }
+
+    /**
+     * Starts drawing a new frame over the current one. Nothing is sent until the next flush,
+     * so the lights themselves act as the off-screen buffer; cells the new frame doesn't draw end up black.
+     */
+    public void beginTransition() {
+        for(int cell = 0; cell < CELL_COUNT; cell++) {
+            mShown[cell] = light(cell).state().currentValue();
+        }
+        clear();
+    }
+
+    /**
+     * Finishes a transition, and counts the cells that differ from the previous frame.
+     * Only those are sent to the device, as unchanged lights aren't updated again.
+     */
+    public int endTransition() {
+        int changed = 0;
+        for(int cell = 0; cell < CELL_COUNT; cell++) {
+            if(!Objects.equals(mShown[cell], light(cell).state().currentValue())) changed++;
+            mShown[cell] = null;
         }
+        return changed;
     }
 
     /**
@@ -0,0 +1,134 @@
+package io.github.jengamon.novation.surface;
+
+import com.bitwig.extension.controller.api.ControllerHost;
+import io.github.jengamon.novation.surface.state.PadLightState;
+
+import java.util.BitSet;
+import java.util.function.IntConsumer;
+
+/**
+ * Short-lived blinks layered over what a mode draws.
+ * Animations never touch the lights themselves: a mode passes its own state for a cell through
+ * {@link #compose(int, PadLightState, double)} when drawing, and the animator asks for cells to be
+ * redrawn when their animation starts or ends. Each blink schedules a single task for its end.
+ */
+public class LedAnimator {
+    private static final int MAX_ANIMATIONS = 32;
+    // Cells redrawn per window; the rest wait for the next one
+    private static final int WINDOW_MS = 40;
+    private static final int MAX_REDRAWS_PER_WINDOW = 16;
+
+    private final ControllerHost mHost;
+    private final IntConsumer mRedraw;
+
+    private final byte[] mColor = new byte[LaunchpadXSurface.CELL_COUNT];
+    private final long[] mEnd = new long[LaunchpadXSurface.CELL_COUNT];
+    // Bumped whenever a cell's animation starts or stops, so end tasks of replaced blinks do nothing
+    private final int[] mGeneration = new int[LaunchpadXSurface.CELL_COUNT];
+    private final BitSet mActive = new BitSet(LaunchpadXSurface.CELL_COUNT);
+    private final BitSet mPending = new BitSet(LaunchpadXSurface.CELL_COUNT);
+
+    private int mRedrawBudget = MAX_REDRAWS_PER_WINDOW;
+    private boolean mRefillScheduled;
+
+    private long mStarted;
+    private long mEvicted;
+    private long mDeferredRedraws;
+
+    public LedAnimator(ControllerHost host, IntConsumer redraw) {
+        mHost = host;
+        mRedraw = redraw;
+    }
+
+    /**
+     * Blinks color over the cell's own light for duration ms.
+     */
+    public void blink(int cell, int color, long duration) {
+        if(!mActive.get(cell) && mActive.cardinality() >= MAX_ANIMATIONS) {
+            evictOldest();
+        }
+        mColor[cell] = (byte)color;
+        mEnd[cell] = System.currentTimeMillis() + duration;
+        mActive.set(cell);
+        mStarted++;
+        int generation = ++mGeneration[cell];
+        mHost.scheduleTask(() -> end(cell, generation), duration);
+        redraw(cell);
+    }
+
+    /**
+     * Stops any animation on the cell.
+     */
+    public void cancel(int cell) {
+        if(!mActive.get(cell)) return;
+        stop(cell);
+    }
+
+    /**
+     * The light to show for a cell, given what the mode would show without animations.
+     */
+    public PadLightState compose(int cell, PadLightState base, double bpm) {
+        if(!mActive.get(cell)) return base;
+        return PadLightState.of(bpm, base.solid(), mColor[cell], base.pulse());
+    }
+
+    /**
+     * Redraws that had to wait for a later window, each cell counted once however often it was asked for.
+     */
+    public long deferredRedraws() { return mDeferredRedraws; }
+
+    public String summary() {
+        return mStarted + " animations, " + mEvicted + " evicted, " + mDeferredRedraws + " redraws deferred";
+    }
+
+    private void end(int cell, int generation) {
+        if(mGeneration[cell] != generation || !mActive.get(cell)) return;
+        stop(cell);
+    }
+
+    private void stop(int cell) {
+        mActive.clear(cell);
+        mGeneration[cell]++;
+        redraw(cell);
+    }
+
+    /**
+     * Drops the animation closest to its end, to make room for a new one.
+     */
+    private void evictOldest() {
+        int oldest = -1;
+        for(int cell = mActive.nextSetBit(0); cell >= 0; cell = mActive.nextSetBit(cell + 1)) {
+            if(oldest < 0 || mEnd[cell] < mEnd[oldest]) oldest = cell;
+        }
+        stop(oldest);
+        mEvicted++;
+    }
+
+    /**
+     * Redraws the cell if this window's budget allows, or leaves it for the next window.
+     */
+    private void redraw(int cell) {
+        if(mRedrawBudget == 0) {
+            if(!mPending.get(cell)) {
+                mPending.set(cell);
+                mDeferredRedraws++;
+            }
+            return;
+        }
+        if(!mRefillScheduled) {
+            mRefillScheduled = true;
+            mHost.scheduleTask(this::refill, WINDOW_MS);
+        }
+        mPending.clear(cell);
+        mRedrawBudget--;
+        mRedraw.accept(cell);
+    }
+
+    private void refill() {
+        mRefillScheduled = false;
+        mRedrawBudget = MAX_REDRAWS_PER_WINDOW;
+        for(int cell = mPending.nextSetBit(0); cell >= 0 && mRedrawBudget > 0; cell = mPending.nextSetBit(cell + 1)) {
+            redraw(cell);
+        }
+    }
+}
@@ -3,6 +3,7 @@ package io.github.jengamon.novation.surface;
 import com.bitwig.extension.controller.api.*;
 import io.github.jengamon.novation.Utils;
 import io.github.jengamon.novation.internal.ChannelType;
+import io.github.jengamon.novation.internal.DeviceLayout;
 import io.github.jengamon.novation.internal.Session;
 import io.github.jengamon.novation.surface.state.PadLightState;
 
@@ -31,17 +32,26 @@ public class NoteButton extends LaunchpadXPad {
         mButton.setBounds(x, y, 21, 21);
         mButton.setLabel(" "); // Don't label note pads
 
-        // Upload the state to the hardware
+        // Upload the state to the hardware, addressing only the notes of the layout the device shows
         mLight.state().onUpdateHardware(state -> {
             PadLightState padState = (PadLightState)state;
-            if(padState != null) {
+            DeviceLayout layout = session.layout();
+            if(padState == null || layout == DeviceLayout.FADERS) return;
+            if(session.isBatchingLeds()) {
+                session.queueLed(note, padState.solid(), padState.blink(), padState.pulse());
+                return;
+            }
+            if(layout != DeviceLayout.NOTE) {
                 session.sendMidi(0x90, note, padState.solid());
-                session.sendMidi(0x98, dpnote, padState.solid());
                 if(padState.blink() > 0) session.sendMidi(0x91, note, padState.blink());
-                if(padState.blink() > 0) session.sendMidi(0x99, dpnote, padState.blink());
                 if(padState.pulse() > 0) session.sendMidi(0x92, note, padState.pulse());
+            }
+            if(layout != DeviceLayout.SESSION) {
+                session.sendMidi(0x98, dpnote, padState.solid());
+                if(padState.blink() > 0) session.sendMidi(0x99, dpnote, padState.blink());
                 if(padState.pulse() > 0) session.sendMidi(0x9A, dpnote, padState.pulse());
             }
+            session.latency().ledSent(note);
         });
         mLight.setColorToStateFunction(color -> PadLightState.solidLight(Utils.toNovation(color)));
 
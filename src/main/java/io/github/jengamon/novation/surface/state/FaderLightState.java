@@ -5,11 +5,26 @@ import com.bitwig.extension.controller.api.HardwareLightVisualState;
 import com.bitwig.extension.controller.api.InternalHardwareLightState;
 import io.github.jengamon.novation.Utils;
 
+/**
+ * Fader light states are interned, one per palette color. Get them through {@link #of(byte)}.
+ */
 public class FaderLightState extends InternalHardwareLightState {
     private final byte mSolid;
 
-    public FaderLightState(byte solid) {
-        mSolid = (solid < 0 ? 0 : solid);
+    private static final FaderLightState[] STATES = new FaderLightState[128];
+
+    static {
+        for(int i = 0; i < STATES.length; i++) {
+            STATES[i] = new FaderLightState((byte)i);
+        }
+    }
+
+    private FaderLightState(byte solid) {
+        mSolid = solid;
+    }
+
+    public static FaderLightState of(byte solid) {
+        return STATES[solid < 0 ? 0 : solid];
     }
 
     @Override
@@ -21,7 +36,9 @@ public class FaderLightState extends InternalHardwareLightState {
 
     @Override
     public boolean equals(Object o) {
-        if(o != null && o.getClass() == FaderLightState.class) {
+        if(o == this) {
+            return true;
+        } else if(o != null && o.getClass() == FaderLightState.class) {
             FaderLightState other = (FaderLightState)o;
             return mSolid == other.mSolid;
         } else {
@@ -29,5 +46,10 @@ public class FaderLightState extends InternalHardwareLightState {
         }
     }
 
+    @Override
+    public int hashCode() {
+        return mSolid;
+    }
+
     public byte solid() { return mSolid; }
 }
@@ -5,25 +5,95 @@ import com.bitwig.extension.controller.api.HardwareLightVisualState;
 import com.bitwig.extension.controller.api.InternalHardwareLightState;
 import io.github.jengamon.novation.Utils;
 
+import java.util.Arrays;
+
+/**
+ * Pad light states are interned, so equal states are usually the same instance; compare them with equals.
+ * Solid states are always shared, but the table of blinking and pulsing states is emptied when it fills up,
+ * after which a new instance is made for a state that was handed out before.
+ * Get them through {@link #of(double, byte, byte, byte)}, {@link #solidLight(int)} or {@link #pulseLight(double, int)}.
+ */
 public class PadLightState extends InternalHardwareLightState {
     private final byte mSolid;
     private final byte mPulse;
     private final byte mBlink;
     private final double mBPM;
 
-    public PadLightState(double bpm, byte solid, byte blink, byte pulse) {
+    // BPM only drives the on-screen blink rate, so it is kept to a hundredth of a beat
+    private static final double BPM_STEPS = 100.0;
+    private static final double STATIC_BPM = 1.0;
+
+    private static final PadLightState[] SOLID_STATES = new PadLightState[128];
+    // Open-addressed table for blinking and pulsing states, keyed on (bpm, solid, blink, pulse)
+    private static final int ANIMATED_CAPACITY = 4096;
+    private static final long[] ANIMATED_KEYS = new long[ANIMATED_CAPACITY];
+    private static final PadLightState[] ANIMATED_STATES = new PadLightState[ANIMATED_CAPACITY];
+    private static int sAnimatedCount = 0;
+    private static long sCreated = 0;
+
+    static {
+        for(int i = 0; i < SOLID_STATES.length; i++) {
+            SOLID_STATES[i] = new PadLightState(STATIC_BPM, (byte)i, (byte)0, (byte)0);
+        }
+    }
+
+    private PadLightState(double bpm, byte solid, byte blink, byte pulse) {
         mBPM = bpm;
-        mSolid = (solid < 0 ? 0 : solid);
-        mBlink = (blink < 0 ? 0 : blink);
-        mPulse = (pulse < 0 ? 0 : pulse);
+        mSolid = solid;
+        mBlink = blink;
+        mPulse = pulse;
+    }
+
+    public static PadLightState of(double bpm, byte solid, byte blink, byte pulse) {
+        solid = (solid < 0 ? 0 : solid);
+        blink = (blink < 0 ? 0 : blink);
+        pulse = (pulse < 0 ? 0 : pulse);
+        if(blink == 0 && pulse == 0) {
+            return SOLID_STATES[solid];
+        }
+
+        return animated(bpm, solid, blink, pulse);
+    }
+
+    // The table is shared by all callers, which may be on the OSC as well as the MIDI thread, so it is locked
+    private static synchronized PadLightState animated(double bpm, byte solid, byte blink, byte pulse) {
+        long steps = Math.round(bpm * BPM_STEPS);
+        long key = (steps << 21) | (solid << 14) | (blink << 7) | pulse;
+        int slot = (int)((key ^ (key >>> 17) ^ (key >>> 31)) * 0x9E3779B1L >>> 20) & (ANIMATED_CAPACITY - 1);
+        while(ANIMATED_STATES[slot] != null) {
+            if(ANIMATED_KEYS[slot] == key) {
+                return ANIMATED_STATES[slot];
+            }
+            slot = (slot + 1) & (ANIMATED_CAPACITY - 1);
+        }
+
+        // Keep the table sparse; tempo automation can produce an unbounded number of BPMs
+        if(sAnimatedCount >= ANIMATED_CAPACITY / 2) {
+            Arrays.fill(ANIMATED_STATES, null);
+            sAnimatedCount = 0;
+            return animated(bpm, solid, blink, pulse);
+        }
+        PadLightState state = new PadLightState(steps / BPM_STEPS, solid, blink, pulse);
+        ANIMATED_KEYS[slot] = key;
+        ANIMATED_STATES[slot] = state;
+        sAnimatedCount++;
+        sCreated++;
+        return state;
+    }
+
+    /**
+     * How many animated states have been created so far, for tests.
+     */
+    static synchronized long created() {
+        return sCreated;
     }
 
     public static PadLightState solidLight(int color) {
-        return new PadLightState(1.0, (byte)color, (byte)0, (byte)0);
+        return of(STATIC_BPM, (byte)color, (byte)0, (byte)0);
     }
 
     public static PadLightState pulseLight(double bpm, int color) {
-        return new PadLightState(bpm, (byte)0, (byte)0, (byte)color);
+        return of(bpm, (byte)0, (byte)0, (byte)color);
     }
 
     @Override
@@ -54,7 +124,9 @@ public class PadLightState extends InternalHardwareLightState {
 
     @Override
     public boolean equals(Object o) {
-        if(o != null && o.getClass() == PadLightState.class) {
+        if(o == this) {
+            return true;
+        } else if(o != null && o.getClass() == PadLightState.class) {
             PadLightState other = (PadLightState)o;
             return mSolid == other.mSolid && mPulse == other.mPulse && mBlink == other.mBlink && mBPM == other.mBPM;
         } else {
@@ -62,6 +134,11 @@ public class PadLightState extends InternalHardwareLightState {
         }
     }
 
+    @Override
+    public int hashCode() {
+        return (((Double.hashCode(mBPM) * 31 + mSolid) * 31 + mBlink) * 31) + mPulse;
+    }
+
     public byte solid() { return mSolid; }
     public byte pulse() { return mPulse; }
     public byte blink() { return mBlink; }
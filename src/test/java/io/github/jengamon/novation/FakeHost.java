@@ -0,0 +1,317 @@
+package io.github.jengamon.novation;
+
+import com.bitwig.extension.api.Color;
+import com.bitwig.extension.controller.api.ControllerHost;
+import com.bitwig.extension.controller.api.HardwareActionBindable;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.GenericArrayType;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Proxy;
+import java.lang.reflect.Type;
+import java.lang.reflect.TypeVariable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.DoubleConsumer;
+import java.util.function.Function;
+
+/**
+ * A stand-in for Bitwig, enough to run the extension without the host.
+ * Every API object is a proxy that remembers what it returned, so asking for the same object twice
+ * gives the same proxy. Values keep what was set on them, lights are sent on {@link #updateHardware()},
+ * and scheduled tasks only run when a test calls {@link #runTasks()}.
+ */
+public class FakeHost {
+    /**
+     * The state behind one proxied API object.
+     */
+    public static class Stub {
+        private final Class<?> mType;
+        private final Map<List<Object>, Object> mChildren = new HashMap<>();
+        private final Map<String, Integer> mCalls = new HashMap<>();
+        private final Map<String, Object> mAnswers = new HashMap<>();
+        private final List<Object> mObservers = new ArrayList<>();
+        private Object mValue;
+        private Object mSent;
+        private boolean mHasSent;
+        private Runnable mAction;
+        private Consumer<Object> mOnUpdateHardware;
+        private Function<Object, Object> mColorToState;
+        private Object mMidiCallback;
+        private Object mSysexCallback;
+
+        Stub(Class<?> type) {
+            mType = type;
+        }
+
+        public int calls(String method) {
+            Integer count = mCalls.get(method);
+            return count == null ? 0 : count;
+        }
+
+        public Object value() { return mValue; }
+        public List<Object> observers() { return mObservers; }
+        public Object midiCallback() { return mMidiCallback; }
+        public Object sysexCallback() { return mSysexCallback; }
+
+        /**
+         * Makes a method of this object return the given answer from now on.
+         */
+        public void answer(String method, Object answer) {
+            mAnswers.put(method, answer);
+        }
+    }
+
+    private final ControllerHost mHost;
+    private final Map<Object, Stub> mStubs = new HashMap<>();
+    private final List<Stub> mLights = new ArrayList<>();
+    private final List<Runnable> mTasks = new ArrayList<>();
+    private final Map<String, Object> mOscMethods = new HashMap<>();
+    private final List<int[]> mMidi = new ArrayList<>();
+    private final List<Object> mSysex = new ArrayList<>();
+    private boolean mRecording = true;
+    private int mFlushRequests;
+
+    public FakeHost() {
+        mHost = create(ControllerHost.class);
+    }
+
+    public ControllerHost host() { return mHost; }
+
+    /**
+     * Creates a free-standing proxy of any API interface.
+     */
+    public <T> T create(Class<T> type) {
+        Stub stub = new Stub(type);
+        Object proxy = Proxy.newProxyInstance(FakeHost.class.getClassLoader(), new Class<?>[] {type},
+                (InvocationHandler) (self, method, args) -> invoke(self, stub, method, args));
+        mStubs.put(proxy, stub);
+        return type.cast(proxy);
+    }
+
+    public Stub stub(Object proxy) {
+        return mStubs.get(proxy);
+    }
+
+    /**
+     * Whether MIDI output is kept; benchmarks turn it off so the lists don't grow.
+     */
+    public void setRecording(boolean recording) {
+        mRecording = recording;
+    }
+
+    public List<int[]> midiOut() { return mMidi; }
+
+    /**
+     * SysEx messages as the extension handed them over, either hex strings or the byte arrays themselves.
+     */
+    public List<Object> sysexOut() { return mSysex; }
+
+    public int flushRequests() { return mFlushRequests; }
+
+    public Object oscMethod(String address) {
+        return mOscMethods.get(address);
+    }
+
+    /**
+     * Runs the tasks scheduled so far, ignoring their delays.
+     */
+    public void runTasks() {
+        List<Runnable> tasks = new ArrayList<>(mTasks);
+        mTasks.clear();
+        for(Runnable task : tasks) task.run();
+    }
+
+    public int pendingTasks() { return mTasks.size(); }
+
+    /**
+     * Sends every light whose state changed since it was last sent, like the host does after a flush.
+     */
+    public void updateHardware() {
+        for(Stub light : mLights) {
+            if(light.mHasSent && light.mSent == light.mValue) continue;
+            light.mSent = light.mValue;
+            light.mHasSent = true;
+            light.mOnUpdateHardware.accept(light.mValue);
+        }
+    }
+
+    private void invalidateHardware() {
+        for(Stub light : mLights) {
+            light.mHasSent = false;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private Object invoke(Object self, Stub stub, Method method, Object[] args) throws Throwable {
+        String name = method.getName();
+        if(method.getDeclaringClass() == Object.class) {
+            switch(name) {
+                case "equals": return self == args[0];
+                case "hashCode": return System.identityHashCode(self);
+                default: return stub.mType.getSimpleName() + "@" + Integer.toHexString(System.identityHashCode(self));
+            }
+        }
+        stub.mCalls.merge(name, 1, Integer::sum);
+        if(stub.mAnswers.containsKey(name)) return stub.mAnswers.get(name);
+        int arity = args == null ? 0 : args.length;
+
+        switch(name) {
+            case "createAction":
+                return action(args[0]);
+            case "scheduleTask":
+                mTasks.add((Runnable) args[0]);
+                return null;
+            case "requestFlush":
+                mFlushRequests++;
+                return null;
+            case "sendMidi":
+                if(mRecording) mMidi.add(new int[] {(Integer) args[0], (Integer) args[1], (Integer) args[2]});
+                return null;
+            case "sendSysex":
+                if(mRecording) mSysex.add(args[0]);
+                return null;
+            case "registerMethod":
+                mOscMethods.put((String) args[0], args[3]);
+                return null;
+            case "setMidiCallback":
+                stub.mMidiCallback = args[0];
+                return null;
+            case "setSysexCallback":
+                stub.mSysexCallback = args[0];
+                return null;
+            case "invoke":
+                if(stub.mAction != null) stub.mAction.run();
+                return null;
+            case "updateHardware":
+                updateHardware();
+                return null;
+            case "invalidateHardwareOutputState":
+                invalidateHardware();
+                return null;
+            case "onUpdateHardware":
+                stub.mOnUpdateHardware = (Consumer<Object>) args[0];
+                mLights.add(stub);
+                return null;
+            case "setColorToStateFunction":
+                stub.mColorToState = (Function<Object, Object>) args[0];
+                return null;
+            case "setColor":
+                if(stub.mColorToState != null) {
+                    Object state = child(self, stub, method.getDeclaringClass().getMethod("state"), null);
+                    mStubs.get(state).mValue = stub.mColorToState.apply(args[0]);
+                }
+                return null;
+            case "getSizeOfBank":
+                return 8;
+            case "addValueObserver":
+            case "addSignalObserver":
+                stub.mObservers.add(args[arity - 1]);
+                return null;
+        }
+
+        if(arity == 1 && (name.equals("set") || name.equals("setValue") || name.equals("setRaw"))) {
+            stub.mValue = args[0];
+            return null;
+        }
+        if(arity == 0 && stub.mValue != null && (name.equals("get") || name.equals("getRaw")
+                || name.equals("getAsInt") || name.equals("currentValue"))) {
+            return stub.mValue;
+        }
+        if(name.equals("inc") && arity == 1 && args[0] instanceof Integer) {
+            stub.mValue = (stub.mValue == null ? 0 : (Integer) stub.mValue) + (Integer) args[0];
+            return null;
+        }
+        return child(self, stub, method, args);
+    }
+
+    private Object action(Object target) {
+        HardwareActionBindable action = create(HardwareActionBindable.class);
+        if(target instanceof Runnable) {
+            stub(action).mAction = (Runnable) target;
+        } else if(target instanceof DoubleConsumer) {
+            stub(action).mAction = () -> ((DoubleConsumer) target).accept(1.0);
+        }
+        return action;
+    }
+
+    /**
+     * The (remembered) result of a call returning some other object.
+     */
+    private Object child(Object self, Stub stub, Method method, Object[] args) {
+        Class<?> type = resolve(stub.mType, method.getGenericReturnType());
+        if(type == void.class) return null;
+        if(type == boolean.class) return false;
+        if(type == int.class) return 0;
+        if(type == long.class) return 0L;
+        if(type == double.class) return 0.0;
+        if(type == float.class) return 0.0f;
+        if(type == String.class) return "";
+        if(type == Color.class) return Color.nullColor();
+        if(type.isArray()) return Array.newInstance(type.getComponentType(), 0);
+        if(!type.isInterface()) return null;
+
+        List<Object> key = new ArrayList<>();
+        key.add(method.getName());
+        if(args != null) key.addAll(Arrays.asList(args));
+        Object child = stub.mChildren.get(key);
+        if(child == null) {
+            child = create(type);
+            stub.mChildren.put(key, child);
+        }
+        return child;
+    }
+
+    /**
+     * Turns a generic return type into a class, resolving type variables through the owner's interfaces
+     * (so TrackBank.getItemAt gives a Track, not the erased bound).
+     */
+    private static Class<?> resolve(Class<?> owner, Type type) {
+        if(type instanceof Class) return (Class<?>) type;
+        if(type instanceof ParameterizedType) return (Class<?>) ((ParameterizedType) type).getRawType();
+        if(type instanceof GenericArrayType) {
+            return Array.newInstance(resolve(owner, ((GenericArrayType) type).getGenericComponentType()), 0).getClass();
+        }
+        if(type instanceof TypeVariable) {
+            Type actual = lookup(owner, (TypeVariable<?>) type);
+            if(actual != null && actual != type) return resolve(owner, actual);
+            Type[] bounds = ((TypeVariable<?>) type).getBounds();
+            return resolve(owner, bounds[0]);
+        }
+        return Object.class;
+    }
+
+    private static Type lookup(Class<?> owner, TypeVariable<?> variable) {
+        for(Type parent : owner.getGenericInterfaces()) {
+            Class<?> raw = resolve(owner, parent);
+            if(parent instanceof ParameterizedType && raw == variable.getGenericDeclaration()) {
+                TypeVariable<?>[] params = raw.getTypeParameters();
+                for(int i = 0; i < params.length; i++) {
+                    if(params[i].getName().equals(variable.getName())) {
+                        return ((ParameterizedType) parent).getActualTypeArguments()[i];
+                    }
+                }
+            }
+            Type found = lookup(raw, variable);
+            if(found != null) {
+                // The parent may itself pass on one of its own variables
+                if(found instanceof TypeVariable && parent instanceof ParameterizedType) {
+                    TypeVariable<?>[] params = raw.getTypeParameters();
+                    for(int i = 0; i < params.length; i++) {
+                        if(params[i].getName().equals(((TypeVariable<?>) found).getName())) {
+                            return ((ParameterizedType) parent).getActualTypeArguments()[i];
+                        }
+                    }
+                }
+                return found;
+            }
+        }
+        return null;
+    }
+}
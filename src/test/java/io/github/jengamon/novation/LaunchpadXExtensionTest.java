@@ -0,0 +1,181 @@
+package io.github.jengamon.novation;
+
+import com.bitwig.extension.api.opensoundcontrol.OscMessage;
+import com.bitwig.extension.api.opensoundcontrol.OscMethodCallback;
+import com.bitwig.extension.callback.IntegerValueChangedCallback;
+import com.bitwig.extension.callback.SysexMidiDataReceivedCallback;
+import com.bitwig.extension.controller.api.TrackBank;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.PrintStream;
+import java.lang.reflect.Proxy;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+public class LaunchpadXExtensionTest {
+    private final PrintStream mOut = System.out;
+    private final PrintStream mErr = System.err;
+
+    private FakeHost mFake;
+    private LaunchpadXExtension mExtension;
+
+    @Before
+    public void setUp() {
+        mFake = new FakeHost();
+        mExtension = new LaunchpadXExtension(new LaunchpadXExtensionDefinition(), mFake.host());
+    }
+
+    @After
+    public void tearDown() {
+        // init() points these at the host log
+        System.setOut(mOut);
+        System.setErr(mErr);
+    }
+
+    @Test
+    public void initAndFlush() {
+        mExtension.init();
+        assertTrue("init asks for a first flush", mFake.flushRequests() > 0);
+        assertNotNull("the DAW port has a sysex callback",
+                mFake.stub(mFake.host().getMidiInPort(0)).sysexCallback());
+
+        mFake.midiOut().clear();
+        mExtension.flush();
+        mFake.runTasks();
+        assertFalse("the first flush lights the pads", mFake.midiOut().isEmpty());
+
+        // Nothing changed, so nothing more goes out
+        mFake.midiOut().clear();
+        mFake.sysexOut().clear();
+        mExtension.flush();
+        assertTrue(mFake.midiOut().isEmpty());
+        assertTrue(mFake.sysexOut().isEmpty());
+
+        mExtension.exit();
+    }
+
+    private void receiveSysex(String data) {
+        ((SysexMidiDataReceivedCallback) mFake.stub(mFake.host().getMidiInPort(0)).sysexCallback())
+                .sysexDataReceived(data);
+    }
+
+    private int flushAndCountOutput() {
+        mFake.midiOut().clear();
+        mFake.sysexOut().clear();
+        mExtension.flush();
+        return mFake.midiOut().size() + mFake.sysexOut().size();
+    }
+
+    @Test
+    public void channelRepliesDontResendLights() {
+        mExtension.init();
+        flushAndCountOutput();
+
+        receiveSysex("f0 00 20 29 02 0c 16 00 00 00 05 f7");
+        assertEquals(0, flushAndCountOutput());
+    }
+
+    @Test
+    public void layoutRepliesResendLights() {
+        mExtension.init();
+        int initial = flushAndCountOutput();
+
+        receiveSysex("f0 00 20 29 02 0c 00 00 f7");
+        assertEquals(initial, flushAndCountOutput());
+    }
+
+    private static OscMessage jumpScene(int track, int scene) {
+        List<Object> args = Arrays.asList(track, scene);
+        return (OscMessage) Proxy.newProxyInstance(OscMessage.class.getClassLoader(), new Class<?>[] {OscMessage.class},
+                (proxy, method, methodArgs) -> {
+                    switch(method.getName()) {
+                        case "getAddressPattern": return "/bitx/jumpScene";
+                        case "getArguments": return args;
+                        case "getInt": return args.get((Integer) methodArgs[0]);
+                        default: return null;
+                    }
+                });
+    }
+
+    @Test
+    public void oscJumpBurstMovesTheBanksOncePerFlush() throws Exception {
+        mExtension.init();
+        mExtension.flush();
+        OscMethodCallback jump = (OscMethodCallback) mFake.oscMethod("/bitx/jumpScene");
+        TrackBank bank = mFake.host().createTrackBank(8, 0, 8, true);
+        FakeHost.Stub trackPosition = mFake.stub(bank.scrollPosition());
+        FakeHost.Stub scenePosition = mFake.stub(bank.sceneBank().scrollPosition());
+
+        for(int burst = 1; burst <= 3; burst++) {
+            int trackMoves = trackPosition.calls("set");
+            int sceneMoves = scenePosition.calls("set");
+            for(int i = 0; i < 1000; i++) {
+                jump.handle(null, jumpScene(i % 40, burst * 100 + i % 50));
+            }
+            assertEquals("nothing moves before the flush", trackMoves, trackPosition.calls("set"));
+            assertEquals(sceneMoves, scenePosition.calls("set"));
+
+            mExtension.flush();
+            assertTrue(trackPosition.calls("set") - trackMoves <= 1);
+            assertEquals(1, scenePosition.calls("set") - sceneMoves);
+            // The last target of the burst wins (track 39, scene burst * 100 + 49), shown on its page of 8
+            assertEquals(32, bank.scrollPosition().get());
+            assertEquals((burst * 100 + 49) / 8 * 8, bank.sceneBank().scrollPosition().get());
+        }
+
+        // Nothing pending, nothing moves
+        int trackMoves = trackPosition.calls("set");
+        int sceneMoves = scenePosition.calls("set");
+        mExtension.flush();
+        assertEquals(trackMoves, trackPosition.calls("set"));
+        assertEquals(sceneMoves, scenePosition.calls("set"));
+    }
+
+    @Test
+    public void oscJumpBurstAcrossTwoFlushesMovesTheBanksOnce() throws Exception {
+        mExtension.init();
+        mExtension.flush();
+        OscMethodCallback jump = (OscMethodCallback) mFake.oscMethod("/bitx/jumpScene");
+        TrackBank bank = mFake.host().createTrackBank(8, 0, 8, true);
+        FakeHost.Stub trackPosition = mFake.stub(bank.scrollPosition());
+        FakeHost.Stub scenePosition = mFake.stub(bank.sceneBank().scrollPosition());
+        // Bitwig hasn't reported the new positions back yet
+        trackPosition.answer("get", 0);
+        scenePosition.answer("get", 0);
+
+        for(int i = 0; i < 1000; i++) {
+            jump.handle(null, jumpScene(i % 40, 100 + i % 50));
+        }
+        mExtension.flush();
+        assertEquals(1, trackPosition.calls("set"));
+        assertEquals(1, scenePosition.calls("set"));
+        assertEquals(32, trackPosition.value());
+        assertEquals(144, scenePosition.value());
+
+        // The rest of the burst stays on the pages already asked for
+        for(int i = 0; i < 500; i++) {
+            jump.handle(null, jumpScene(32 + i % 8, 144 + i % 8));
+        }
+        mExtension.flush();
+        assertEquals(1, trackPosition.calls("set"));
+        assertEquals(1, scenePosition.calls("set"));
+
+        // Once Bitwig reports back, the bank's own position counts again
+        trackPosition.answer("get", 32);
+        for(Object observer : trackPosition.observers()) {
+            ((IntegerValueChangedCallback) observer).valueChanged(32);
+        }
+        jump.handle(null, jumpScene(3, 144));
+        mExtension.flush();
+        assertEquals(2, trackPosition.calls("set"));
+        assertEquals(0, trackPosition.value());
+        assertEquals(1, scenePosition.calls("set"));
+    }
+}
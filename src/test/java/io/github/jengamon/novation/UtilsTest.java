@@ -0,0 +1,79 @@
+package io.github.jengamon.novation;
+
+import com.bitwig.extension.api.Color;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+
+public class UtilsTest {
+    private static final int STEP = 5;
+
+    /**
+     * The original lookup: the redmean distance to every palette entry, first minimum wins.
+     */
+    private static byte streamSearch(Color c) {
+        List<Color> colors = new ArrayList<>();
+        for(int i = 0; i < 128; i++) colors.add(Utils.fromNovation((byte)i));
+        List<Double> colorDistance = colors.stream()
+                .map(color -> {
+                    int rbar = (c.getRed255() + color.getRed255()) / 2;
+                    return Math.sqrt(
+                            (2 + (rbar / 256.0)) * Math.pow(c.getRed255() - color.getRed255(), 2) +
+                                    4 * Math.pow(c.getGreen255() - color.getGreen255(), 2) +
+                                    (2 + ((255 - rbar) / 256.0)) * Math.pow(c.getBlue255() - color.getBlue255(), 2)
+                    );
+                })
+                .collect(Collectors.toList());
+        return (byte) colorDistance.indexOf(Collections.min(colorDistance));
+    }
+
+    private static void check(int r, int g, int b) {
+        Color color = Color.fromRGB255(r, g, b);
+        assertEquals("R" + r + "G" + g + "B" + b, streamSearch(color), Utils.toNovation(color));
+    }
+
+    @Test
+    public void paletteColorsMatchStreamSearch() {
+        for(int i = 0; i < 128; i++) {
+            Color color = Utils.fromNovation((byte)i);
+            check(color.getRed255(), color.getGreen255(), color.getBlue255());
+        }
+    }
+
+    @Test
+    public void sampledCubeMatchesStreamSearch() {
+        int[] values = new int[256 / STEP + 2];
+        for(int i = 0; i < values.length - 1; i++) values[i] = Math.min(255, i * STEP);
+        values[values.length - 1] = 255;
+        for(int r : values) {
+            for(int g : values) {
+                for(int b : values) {
+                    check(r, g, b);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void randomColorsMatchStreamSearch() {
+        Random random = new Random(1);
+        for(int i = 0; i < 20000; i++) {
+            check(random.nextInt(256), random.nextInt(256), random.nextInt(256));
+        }
+    }
+
+    @Test
+    public void repeatedLookupsAgree() {
+        // The second lookup comes from the recent cache
+        int[][] colors = {{255, 0, 0}, {12, 200, 99}, {0, 0, 0}, {128, 128, 128}};
+        for(int pass = 0; pass < 2; pass++) {
+            for(int[] c : colors) check(c[0], c[1], c[2]);
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package io.github.jengamon.novation.internal;
+
+import io.github.jengamon.novation.FakeHost;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class HostLogTest {
+    @Test
+    public void linesOutsideAFlushRequestOneFlush() {
+        FakeHost fake = new FakeHost();
+        HostLog log = new HostLog(fake.host());
+        log.info("a");
+        log.info("b");
+        assertEquals(1, fake.flushRequests());
+
+        log.drain();
+        log.info("c");
+        assertEquals(2, fake.flushRequests());
+    }
+
+    @Test
+    public void linesDuringAFlushRequestNothing() {
+        FakeHost fake = new FakeHost();
+        HostLog log = new HostLog(fake.host());
+        log.beginFlush();
+        log.info("a");
+        log.error("b");
+        log.drain();
+        assertEquals(0, fake.flushRequests());
+        assertEquals(1, fake.stub(fake.host()).calls("println"));
+        assertEquals(1, fake.stub(fake.host()).calls("errorln"));
+    }
+
+    @Test
+    public void disabledLevelsAreDropped() {
+        FakeHost fake = new FakeHost();
+        HostLog log = new HostLog(fake.host());
+        log.debug("a");
+        assertEquals(0, fake.flushRequests());
+        log.drain();
+        assertEquals(0, fake.stub(fake.host()).calls("println"));
+    }
+}
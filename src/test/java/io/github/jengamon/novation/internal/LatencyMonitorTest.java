@@ -0,0 +1,32 @@
+package io.github.jengamon.novation.internal;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertTrue;
+
+public class LatencyMonitorTest {
+    @Test
+    public void padIsAnsweredOnlyByItsOwnLed() {
+        LatencyMonitor monitor = new LatencyMonitor();
+        monitor.input(LatencyMonitor.Input.PAD, 81);
+        monitor.ledSent(82);
+        monitor.ledSent(71);
+        assertTrue(monitor.summary().startsWith("Pads to feedback: 0 samples"));
+
+        monitor.ledSent(81);
+        assertTrue(monitor.summary().startsWith("Pads to feedback: 1 samples"));
+    }
+
+    @Test
+    public void sceneIsAnsweredByItsRow() {
+        LatencyMonitor monitor = new LatencyMonitor();
+        // The top scene button, whose row holds pads 81..88
+        monitor.input(LatencyMonitor.Input.SCENE, 89);
+        monitor.ledSent(71);
+        monitor.ledSent(99);
+        assertTrue(monitor.summary().contains("Scenes to feedback: 0 samples"));
+
+        monitor.ledSent(84);
+        assertTrue(monitor.summary().contains("Scenes to feedback: 1 samples"));
+    }
+}
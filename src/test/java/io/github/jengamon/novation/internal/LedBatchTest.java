@@ -0,0 +1,52 @@
+package io.github.jengamon.novation.internal;
+
+import io.github.jengamon.novation.FakeHost;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class LedBatchTest {
+    // Header, command byte, one spec of three bytes, terminator
+    private static final int ONE_SPEC = 8 + 3;
+
+    @Test
+    public void gridPadsGoFirst() {
+        FakeHost fake = new FakeHost();
+        Session session = new Session(fake.host());
+        fake.sysexOut().clear();
+
+        LedBatch batch = new LedBatch();
+        batch.set(19, (byte)0, (byte)0, (byte)5);  // pulsing scene button
+        batch.set(91, (byte)3, (byte)0, (byte)0);  // static arrow
+        batch.set(11, (byte)0, (byte)0, (byte)21); // pulsing grid pad
+        batch.set(12, (byte)45, (byte)0, (byte)0); // static grid pad
+
+        // Grid pads in index order whether animated or not, then the static button, then the pulsing one
+        int[] order = {11, 12, 91, 19};
+        for(int i = 0; i < order.length; i++) {
+            boolean complete = batch.drain(session, ONE_SPEC);
+            assertEquals(i == order.length - 1, complete);
+            byte[] frame = (byte[]) fake.sysexOut().get(i);
+            // F0 00 20 29 02 0C 03 <type> <index> ...
+            assertEquals(order[i], frame[8]);
+        }
+        assertTrue(batch.isEmpty());
+    }
+
+    @Test
+    public void unchangedLedsAreSkipped() {
+        FakeHost fake = new FakeHost();
+        Session session = new Session(fake.host());
+        LedBatch batch = new LedBatch();
+        batch.set(11, (byte)5, (byte)0, (byte)0);
+        batch.drain(session, Integer.MAX_VALUE);
+        batch.set(11, (byte)5, (byte)0, (byte)0);
+        assertTrue(batch.isEmpty());
+
+        batch.invalidate();
+        batch.set(11, (byte)5, (byte)0, (byte)0);
+        assertFalse(batch.isEmpty());
+    }
+}
@@ -0,0 +1,60 @@
+package io.github.jengamon.novation.internal;
+
+import io.github.jengamon.novation.FakeHost;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+
+public class SessionTest {
+    private FakeHost mFake;
+    private Session mSession;
+
+    @Before
+    public void setUp() {
+        mFake = new FakeHost();
+        mSession = new Session(mFake.host());
+        mFake.sysexOut().clear();
+    }
+
+    @Test
+    public void queuedSysexIsNotOverwritten() {
+        mSession.sendSysex(new byte[] {0x03, 0x00, 0x0B, 0x05});
+        mSession.sendSysex(new byte[] {0x03, 0x00, 0x0C, 0x06});
+
+        List<Object> sent = mFake.sysexOut();
+        assertEquals(2, sent.size());
+        assertNotSame(sent.get(0), sent.get(1));
+        assertArrayEquals(new byte[] {(byte)0xF0, 0x00, 0x20, 0x29, 0x02, 0x0C, 0x03, 0x00, 0x0B, 0x05, (byte)0xF7},
+                (byte[]) sent.get(0));
+        assertArrayEquals(new byte[] {(byte)0xF0, 0x00, 0x20, 0x29, 0x02, 0x0C, 0x03, 0x00, 0x0C, 0x06, (byte)0xF7},
+                (byte[]) sent.get(1));
+    }
+
+    @Test
+    public void sysexCountsItsBytes() {
+        long bytes = mSession.bytesSent();
+        mSession.sendSysex(new byte[] {0x00, 0x01});
+        mSession.sendSysex(new byte[] {0x03, 0x00, 0x0B, 0x05}, 2);
+        // The two mode switches sent on startup, then these two
+        assertEquals(4, mSession.sysexMessages());
+        // Header, two body bytes and the terminator: 9 bytes each
+        assertEquals(bytes + 18, mSession.bytesSent());
+    }
+
+    @Test
+    public void shortMessagesAreCountedByKind() {
+        long bytes = mSession.bytesSent();
+        mSession.sendMidi(0x90, 11, 5);
+        mSession.sendMidi(0x92, 12, 5);
+        mSession.sendMidi(0xB4, 21, 64);
+        assertEquals(2, mSession.noteMessages());
+        assertEquals(1, mSession.ccMessages());
+        assertEquals(0, mSession.otherMessages());
+        assertEquals(bytes + 9, mSession.bytesSent());
+    }
+}
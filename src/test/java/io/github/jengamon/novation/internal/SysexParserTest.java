@@ -0,0 +1,69 @@
+package io.github.jengamon.novation.internal;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+public class SysexParserTest {
+    private final SysexParser mParser = new SysexParser(16);
+
+    @Test
+    public void parsesBody() {
+        ByteBuffer body = mParser.parse("f0 00 20 29 02 0c 16 00 00 00 05 f7");
+        assertNotNull(body);
+        assertEquals(5, body.remaining());
+        assertEquals(0x16, body.get(0));
+        assertEquals(0x05, body.get(4));
+    }
+
+    @Test
+    public void acceptsUpperCaseAndNoSpaces() {
+        ByteBuffer body = mParser.parse("F0002029020C0001F7");
+        assertNotNull(body);
+        assertEquals(2, body.remaining());
+        assertEquals(0x01, body.get(1));
+    }
+
+    @Test
+    public void rejectsBadHeader() {
+        // Another Novation product
+        assertNull(mParser.parse("f0 00 20 29 02 0d 00 01 f7"));
+        // Not even Novation
+        assertNull(mParser.parse("f0 7e 00 06 02 f7"));
+    }
+
+    @Test
+    public void rejectsOddHexLength() {
+        assertNull(mParser.parse("f0 00 20 29 02 0c 00 01 f7 0"));
+        assertNull(mParser.parse("f0 00 20 29 02 0c 0 01 f7"));
+    }
+
+    @Test
+    public void rejectsMissingTerminator() {
+        assertNull(mParser.parse("f0 00 20 29 02 0c 00 01"));
+        // Header only
+        assertNull(mParser.parse("f0 00 20 29 02 0c"));
+    }
+
+    @Test
+    public void rejectsHighBitData() {
+        assertNull(mParser.parse("f0 00 20 29 02 0c 00 81 f7"));
+        // Nothing may follow the terminator
+        assertNull(mParser.parse("f0 00 20 29 02 0c 00 01 f7 00"));
+    }
+
+    @Test
+    public void rejectsNonHex() {
+        assertNull(mParser.parse("f0 00 20 29 02 0c 0g 01 f7"));
+    }
+
+    @Test
+    public void rejectsOverlongBody() {
+        assertNotNull(mParser.parse("f0 00 20 29 02 0c 00 01 02 03 04 05 06 07 08 09 0a 0b 0c 0d 0e 0f f7"));
+        assertNull(mParser.parse("f0 00 20 29 02 0c 00 01 02 03 04 05 06 07 08 09 0a 0b 0c 0d 0e 0f 10 f7"));
+    }
+}
@@ -0,0 +1,44 @@
+package io.github.jengamon.novation.modes.mixer;
+
+import com.bitwig.extension.callback.DoubleValueChangedCallback;
+import com.bitwig.extension.controller.api.ControllerHost;
+import com.bitwig.extension.controller.api.RangedValue;
+import com.bitwig.extension.controller.api.Transport;
+import io.github.jengamon.novation.FakeHost;
+import io.github.jengamon.novation.Mode;
+import io.github.jengamon.novation.ModeMachine;
+import io.github.jengamon.novation.internal.Session;
+import io.github.jengamon.novation.surface.LaunchpadXSurface;
+import io.github.jengamon.novation.surface.state.PadLightState;
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertEquals;
+
+public class AbstractMixerModeTest {
+    @Test
+    public void tempoChangeRedrawsTheModeIndicator() {
+        FakeHost fake = new FakeHost();
+        ControllerHost host = fake.host();
+        Session session = new Session(host);
+        LaunchpadXSurface surface = new LaunchpadXSurface(host, session, host.createHardwareSurface());
+        ModeMachine machine = new ModeMachine(host, session, surface);
+        Transport transport = host.createTransport();
+        PanMixer pan = new PanMixer(new AtomicReference<>(Mode.MIXER_PAN), host, transport,
+                surface, host.createTrackBank(8, 0, 8, true));
+        machine.register(Mode.MIXER_PAN, pan);
+        machine.setMode(surface, Mode.MIXER_PAN);
+
+        RangedValue bpm = transport.tempo().modulatedValue();
+        fake.stub(bpm).answer("getRaw", 140.0);
+        for(Object observer : fake.stub(bpm).observers()) {
+            ((DoubleValueChangedCallback) observer).valueChanged(0.5);
+        }
+        machine.flush(surface);
+
+        // The device pulses on its own clock, but the on-screen pad follows the state's tempo
+        Object indicator = fake.stub(surface.scenes()[1].light().state()).value();
+        assertEquals(PadLightState.pulseLight(140.0, pan.mModeColor), indicator);
+    }
+}
@@ -0,0 +1,82 @@
+package io.github.jengamon.novation.surface;
+
+import com.bitwig.extension.callback.DoubleValueChangedCallback;
+import io.github.jengamon.novation.FakeHost;
+import io.github.jengamon.novation.internal.Session;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class LaunchpadXSurfaceTest {
+    private FakeHost mFake;
+    private LaunchpadXSurface mSurface;
+
+    @Before
+    public void setUp() {
+        mFake = new FakeHost();
+        Session session = new Session(mFake.host());
+        mSurface = new LaunchpadXSurface(mFake.host(), session, mFake.host().createHardwareSurface());
+    }
+
+    private int faderValuesOut() {
+        int count = 0;
+        for(int[] message : mFake.midiOut()) {
+            if(message[0] == 0xB4) count++;
+        }
+        return count;
+    }
+
+    @Test
+    public void faderSetupResendsValues() {
+        mSurface.setupFaders(true, false, 21);
+        Fader[] faders = mSurface.faders();
+        for(int i = 0; i < faders.length; i++) {
+            for(Object observer : mFake.stub(faders[i].fader().targetValue()).observers()) {
+                ((DoubleValueChangedCallback) observer).valueChanged(i / 8.0);
+            }
+        }
+        mSurface.flushFaderValues();
+        assertEquals(8, faderValuesOut());
+
+        // Same setup, nothing to resend
+        mFake.midiOut().clear();
+        mSurface.setupFaders(true, false, 21);
+        mSurface.flushFaderValues();
+        assertEquals(0, faderValuesOut());
+
+        // The device resets the faders on every setup it receives
+        mSurface.setupFaders(false, false, 21);
+        mSurface.flushFaderValues();
+        assertEquals(8, faderValuesOut());
+    }
+
+    private void report(Fader fader, boolean fromDevice, double value) {
+        mFake.stub(fader.fader().isUpdatingTargetValue()).answer("get", fromDevice);
+        for(Object observer : mFake.stub(fader.fader().targetValue()).observers()) {
+            ((DoubleValueChangedCallback) observer).valueChanged(value);
+        }
+    }
+
+    @Test
+    public void hostRestoringTheLastSentValueMovesTheFaderBack() {
+        mSurface.setupFaders(true, false, 21);
+        Fader fader = mSurface.faders()[0];
+        report(fader, false, 64 / 127.0);
+        mSurface.flushFaderValues();
+        assertEquals(1, faderValuesOut());
+
+        // Moved on the device, then echoed by Bitwig: the device already shows it
+        mFake.midiOut().clear();
+        report(fader, true, 100 / 127.0);
+        report(fader, false, 100 / 127.0);
+        mSurface.flushFaderValues();
+        assertEquals(0, faderValuesOut());
+
+        // Undo puts back the value that was sent before the move
+        report(fader, false, 64 / 127.0);
+        mSurface.flushFaderValues();
+        assertEquals(1, faderValuesOut());
+        assertEquals(64, mFake.midiOut().get(0)[2]);
+    }
+}
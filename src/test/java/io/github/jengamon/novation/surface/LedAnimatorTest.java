@@ -0,0 +1,67 @@
+package io.github.jengamon.novation.surface;
+
+import io.github.jengamon.novation.FakeHost;
+import io.github.jengamon.novation.surface.state.PadLightState;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+public class LedAnimatorTest {
+    @Test
+    public void blinkIsLayeredOverTheModesLight() {
+        FakeHost fake = new FakeHost();
+        List<Integer> redrawn = new ArrayList<>();
+        LedAnimator animator = new LedAnimator(fake.host(), redrawn::add);
+        PadLightState base = PadLightState.pulseLight(120.0, 21);
+
+        animator.blink(3, 13, 10000);
+        assertEquals(1, redrawn.size());
+        PadLightState shown = animator.compose(3, base, 120.0);
+        assertEquals(13, shown.blink());
+        assertEquals(21, shown.pulse());
+        assertSame(base, animator.compose(4, base, 120.0));
+
+        animator.cancel(3);
+        assertEquals(2, redrawn.size());
+        assertSame(base, animator.compose(3, base, 120.0));
+    }
+
+    @Test
+    public void blinkEndsWithoutATick() {
+        FakeHost fake = new FakeHost();
+        List<Integer> redrawn = new ArrayList<>();
+        LedAnimator animator = new LedAnimator(fake.host(), redrawn::add);
+        PadLightState base = PadLightState.solidLight(21);
+
+        animator.blink(3, 13, 500);
+        fake.runTasks();
+        assertEquals(2, redrawn.size());
+        assertSame(base, animator.compose(3, base, 120.0));
+        // Nothing left to poll once the blink is over
+        fake.runTasks();
+        assertEquals(0, fake.pendingTasks());
+    }
+
+    @Test
+    public void deferredRedrawsAreCountedOnce() {
+        FakeHost fake = new FakeHost();
+        List<Integer> redrawn = new ArrayList<>();
+        LedAnimator animator = new LedAnimator(fake.host(), redrawn::add);
+
+        for(int cell = 0; cell < 20; cell++) {
+            animator.blink(cell, 13, 10000);
+        }
+        assertEquals(16, redrawn.size());
+        assertEquals(4, animator.deferredRedraws());
+
+        // Already waiting, so asking again doesn't count again
+        for(int cell = 16; cell < 20; cell++) {
+            animator.cancel(cell);
+        }
+        assertEquals(4, animator.deferredRedraws());
+    }
+}
@@ -0,0 +1,84 @@
+package io.github.jengamon.novation.surface.state;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+public class PadLightStateTest {
+    private static final double BPM = 128.0;
+
+    /**
+     * Draws a grid like the session view does: playing clips pulse, queued ones blink, the rest are solid.
+     */
+    private static void render(PadLightState[] grid, int frame) {
+        for(int cell = 0; cell < grid.length; cell++) {
+            int color = (cell * 7 + frame) & 0x3F;
+            switch(cell % 3) {
+                case 0:
+                    grid[cell] = PadLightState.pulseLight(BPM, color);
+                    break;
+                case 1:
+                    grid[cell] = PadLightState.of(BPM, (byte)color, (byte)21, (byte)0);
+                    break;
+                default:
+                    grid[cell] = PadLightState.solidLight(color);
+            }
+        }
+    }
+
+    @Test
+    public void repeatedRendersCreateNoStates() {
+        PadLightState[] grid = new PadLightState[64];
+        for(int frame = 0; frame < 64; frame++) {
+            render(grid, frame);
+        }
+        long created = PadLightState.created();
+        for(int frame = 0; frame < 10000; frame++) {
+            render(grid, frame);
+        }
+        assertEquals(created, PadLightState.created());
+    }
+
+    @Test
+    public void equalStatesAreEqual() {
+        assertSame(PadLightState.solidLight(5), PadLightState.of(BPM, (byte)5, (byte)0, (byte)0));
+        // Animated states may be made again once the table was emptied, so only equality is promised
+        assertEquals(PadLightState.pulseLight(BPM, 9), PadLightState.pulseLight(BPM + 0.001, 9));
+        assertEquals(PadLightState.of(BPM, (byte)5, (byte)21, (byte)0), PadLightState.of(BPM, (byte)5, (byte)21, (byte)0));
+    }
+
+    @Test
+    public void threadsShareInstances() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<PadLightState[]>> results = new ArrayList<>();
+            for(int thread = 0; thread < 4; thread++) {
+                Callable<PadLightState[]> task = () -> {
+                    PadLightState[] states = new PadLightState[2000];
+                    for(int i = 0; i < states.length; i++) {
+                        states[i] = PadLightState.of(60.0 + i / 10.0, (byte)3, (byte)(1 + i % 100), (byte)0);
+                    }
+                    return states;
+                };
+                results.add(executor.submit(task));
+            }
+            PadLightState[] first = results.get(0).get();
+            for(Future<PadLightState[]> result : results) {
+                PadLightState[] states = result.get();
+                for(int i = 0; i < states.length; i++) {
+                    assertEquals(first[i], states[i]);
+                }
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+}